@@ -0,0 +1,113 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.jordi.tracing.test.extension.TracingExtension;
+import org.jordi.tracing.test.standalone.StandaloneTracing;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+/**
+ * Annotation to be used for testing tracing code without a Spring
+ * {@code ApplicationContext}.
+ *
+ * <p>
+ * Unlike {@link TracingTest}, it does not start any Spring context. Only the tracer, the
+ * propagator and the span collector of the selected {@link TracingProvider} are built
+ * (see {@link StandaloneTracing}), so the test pays only the cost of the tracing library
+ * itself. It is intended for unit tests of tracing code which does not need any bean.
+ * </p>
+ *
+ * <p>
+ * Example of use:
+ *
+ * <pre>
+ *
+ * &#64;StandaloneTracingTest(provider = TracingProvider.BRAVE)
+ * class MyTracingTest {
+ *
+ *   &#64;Spans
+ *   private SpanCollector spanCollector;
+ *
+ *   &#64;TestTracer
+ *   private Tracer tracer;
+ *
+ * }
+ * </pre>
+ *
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ * @see TracingTest
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+@ExtendWith(TracingExtension.class)
+public @interface StandaloneTracingTest {
+
+	/**
+	 * The tracing implementation to use.
+	 * @return the tracing provider
+	 */
+	TracingProvider provider() default TracingProvider.OTEL;
+
+	/**
+	 * The baggage fields propagated as their own header, besides the W3C baggage header.
+	 * @return the remote baggage fields
+	 */
+	String[] baggage() default {};
+
+	/**
+	 * Whether the spans take their timestamps from a {@code VirtualClock}, which only
+	 * moves when the test advances it. The timestamps given explicitly when a span starts
+	 * or ends are kept. The clock can be injected with {@code TestClock}.
+	 * @return {@code true} to use a virtual clock
+	 */
+	boolean virtualClock() default false;
+
+	/**
+	 * Whether to record the CPU time and allocated bytes of the thread of each span, from
+	 * its start to its end, as its {@code ThreadUsage} tags.
+	 * @return {@code true} to record the thread usage
+	 */
+	boolean threadUsage() default false;
+
+	/**
+	 * What to do with the spans which have been started but not finished when each test
+	 * ends. They usually are leaks of the instrumentation.
+	 * @return the policy for unfinished spans
+	 */
+	UnfinishedSpansPolicy unfinishedSpans() default UnfinishedSpansPolicy.WARN;
+
+	/**
+	 * Whether to capture where each span is started, so the unfinished spans are reported
+	 * with their stack traces. It walks the stack of every started span, so it is
+	 * disabled by default.
+	 * @return {@code true} to capture the stack traces of the unfinished spans
+	 */
+	boolean unfinishedSpansStackTrace() default false;
+
+}
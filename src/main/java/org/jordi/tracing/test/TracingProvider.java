@@ -0,0 +1,37 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test;
+
+/**
+ * Tracing implementations supported by the tracing tests.
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public enum TracingProvider {
+
+	/**
+	 * Brave implementation.
+	 */
+	BRAVE,
+
+	/**
+	 * OpenTelemetry implementation.
+	 */
+	OTEL
+
+}
@@ -28,6 +28,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 
 import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
 import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.properties.PropertyMapping;
+import org.springframework.boot.test.autoconfigure.properties.SkipPropertyMapping;
 
 /**
  * Annotation to be used for testing components with tracing.
@@ -79,4 +81,52 @@ import org.springframework.boot.test.autoconfigure.actuate.observability.AutoCon
 @ExtendWith(TracingExtension.class)
 public @interface TracingTest {
 
+	/**
+	 * The formats used to propagate the trace context, such as {@code W3C} and
+	 * {@code B3}. When empty, the Spring Boot default of
+	 * {@code management.tracing.propagation.type} applies.
+	 * @return the propagation types
+	 */
+	@PropertyMapping(value = "management.tracing.propagation.type", skip = SkipPropertyMapping.ON_DEFAULT_VALUE)
+	String[] propagation() default {};
+
+	/**
+	 * The baggage fields propagated as their own header, besides the W3C baggage header.
+	 * @return the remote baggage fields
+	 */
+	@PropertyMapping(value = "management.tracing.baggage.remote-fields", skip = SkipPropertyMapping.ON_DEFAULT_VALUE)
+	String[] baggage() default {};
+
+	/**
+	 * Whether the spans take their timestamps from a {@code VirtualClock}, which only
+	 * moves when the test advances it. The timestamps given explicitly when a span starts
+	 * or ends are kept. The clock can be injected with {@code TestClock}.
+	 * @return {@code true} to use a virtual clock
+	 */
+	@PropertyMapping("tracing.test.virtual-clock")
+	boolean virtualClock() default false;
+
+	/**
+	 * Whether to record the CPU time and allocated bytes of the thread of each span, from
+	 * its start to its end, as its {@code ThreadUsage} tags.
+	 * @return {@code true} to record the thread usage
+	 */
+	@PropertyMapping("tracing.test.thread-usage")
+	boolean threadUsage() default false;
+
+	/**
+	 * What to do with the spans which have been started but not finished when each test
+	 * ends. They usually are leaks of the instrumentation.
+	 * @return the policy for unfinished spans
+	 */
+	UnfinishedSpansPolicy unfinishedSpans() default UnfinishedSpansPolicy.WARN;
+
+	/**
+	 * Whether to capture where each span is started, so the unfinished spans are reported
+	 * with their stack traces. It walks the stack of every started span, so it is
+	 * disabled by default.
+	 * @return {@code true} to capture the stack traces of the unfinished spans
+	 */
+	boolean unfinishedSpansStackTrace() default false;
+
 }
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.assertions;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.micrometer.tracing.exporter.FinishedSpan;
+import org.jordi.tracing.test.collector.FinishedSpans;
+import org.jordi.tracing.test.collector.SpanCollector;
+
+/**
+ * Set of expectations over the spans collected at a test.
+ *
+ * <p>
+ * All the expectations are evaluated together in a single pass over the spans, and all
+ * the mismatches are reported at once. Example:
+ *
+ * <pre>
+ * SpanExpectations.expectSpans()
+ *   .exactly(1, named("A"))
+ *   .then(3, named("B").and(childOf(named("A"))).and(durationUnder(Duration.ofMillis(5))))
+ *   .verify(spanCollector);
+ * </pre>
+ *
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ * @see SpanMatcher
+ */
+public final class SpanExpectations {
+
+	private static final int MAX_REPORTED_CANDIDATES = 10;
+
+	private final List<Expectation> expectations = new ArrayList<>();
+
+	private SpanExpectations() {
+	}
+
+	/**
+	 * Creates an empty set of expectations.
+	 * @return the expectations
+	 */
+	public static SpanExpectations expectSpans() {
+		return new SpanExpectations();
+	}
+
+	/**
+	 * Expects exactly {@code count} spans matching the given matcher.
+	 * @param count the expected number of spans
+	 * @param matcher the matcher
+	 * @return this expectations
+	 */
+	public SpanExpectations exactly(final int count, final SpanMatcher matcher) {
+		return this.add(new Expectation(matcher, count, count, false));
+	}
+
+	/**
+	 * Expects at least {@code count} spans matching the given matcher.
+	 * @param count the minimum number of spans
+	 * @param matcher the matcher
+	 * @return this expectations
+	 */
+	public SpanExpectations atLeast(final int count, final SpanMatcher matcher) {
+		return this.add(new Expectation(matcher, count, Integer.MAX_VALUE, false));
+	}
+
+	/**
+	 * Expects no span matching the given matcher.
+	 * @param matcher the matcher
+	 * @return this expectations
+	 */
+	public SpanExpectations none(final SpanMatcher matcher) {
+		return this.add(new Expectation(matcher, 0, 0, false));
+	}
+
+	/**
+	 * Expects exactly {@code count} spans matching the given matcher, none of them
+	 * starting before any span matched by the previous expectation.
+	 * @param count the expected number of spans
+	 * @param matcher the matcher
+	 * @return this expectations
+	 */
+	public SpanExpectations then(final int count, final SpanMatcher matcher) {
+		if (this.expectations.isEmpty()) {
+			throw new IllegalStateException("then() requires a previous expectation");
+		}
+		return this.add(new Expectation(matcher, count, count, true));
+	}
+
+	/**
+	 * Verifies the expectations against the spans collected by the given collector.
+	 * @param spanCollector the span collector
+	 * @throws AssertionError if any expectation is not met
+	 */
+	public void verify(final SpanCollector spanCollector) {
+		this.verify(spanCollector.getFinishedSpans());
+	}
+
+	/**
+	 * Verifies the expectations against the given spans.
+	 * @param spans the spans
+	 * @throws AssertionError if any expectation is not met
+	 */
+	public void verify(final List<FinishedSpan> spans) {
+		final SpanIndex index = SpanIndex.of(spans);
+		final Evaluation[] evaluations = new Evaluation[this.expectations.size()];
+		for (int i = 0; i < evaluations.length; i++) {
+			evaluations[i] = new Evaluation(this.expectations.get(i));
+		}
+
+		for (final FinishedSpan span : spans) {
+			for (final Evaluation evaluation : evaluations) {
+				evaluation.evaluate(span, index);
+			}
+		}
+
+		final List<String> mismatches = new ArrayList<>();
+		for (int i = 0; i < evaluations.length; i++) {
+			evaluations[i].describeMismatches((i > 0) ? evaluations[i - 1] : null, mismatches);
+		}
+
+		if (!mismatches.isEmpty()) {
+			throw new AssertionError("Span expectations not met:" + System.lineSeparator() + " - "
+					+ String.join(System.lineSeparator() + " - ", mismatches));
+		}
+	}
+
+	private SpanExpectations add(final Expectation expectation) {
+		this.expectations.add(expectation);
+		return this;
+	}
+
+	private record Expectation(SpanMatcher matcher, int min, int max, boolean afterPrevious) {
+
+		String describe() {
+			final String times;
+			if (this.min == this.max) {
+				times = "exactly " + this.min;
+			}
+			else {
+				times = "at least " + this.min;
+			}
+			return times + " span(s) [" + this.matcher + "]";
+		}
+
+	}
+
+	/**
+	 * State of the evaluation of an {@link Expectation}. The failure messages are only
+	 * built if the expectation is not met.
+	 */
+	private static final class Evaluation {
+
+		private final Expectation expectation;
+
+		private int matches;
+
+		private FinishedSpan earliestMatch;
+
+		private Instant latestMatchStart;
+
+		private final List<FinishedSpan> failedCandidates = new ArrayList<>();
+
+		private final List<String> failedCriteria = new ArrayList<>();
+
+		Evaluation(final Expectation expectation) {
+			this.expectation = expectation;
+		}
+
+		void evaluate(final FinishedSpan span, final SpanIndex index) {
+			final String failure = this.expectation.matcher().firstFailure(span, index);
+
+			if (failure == null) {
+				this.matches++;
+				final Instant start = span.getStartTimestamp();
+				if (this.earliestMatch == null || start.isBefore(this.earliestMatch.getStartTimestamp())) {
+					this.earliestMatch = span;
+				}
+				if (this.latestMatchStart == null || start.isAfter(this.latestMatchStart)) {
+					this.latestMatchStart = start;
+				}
+			}
+			else if (this.failedCandidates.size() < MAX_REPORTED_CANDIDATES
+					&& this.expectation.matcher().isCandidate(span, index)) {
+				this.failedCandidates.add(span);
+				this.failedCriteria.add(failure);
+			}
+		}
+
+		void describeMismatches(final Evaluation previous, final List<String> mismatches) {
+			if (this.matches < this.expectation.min() || this.matches > this.expectation.max()) {
+				final StringBuilder mismatch = new StringBuilder();
+				mismatch.append("expected ")
+					.append(this.expectation.describe())
+					.append(" but found ")
+					.append(this.matches);
+
+				for (int i = 0; i < this.failedCandidates.size(); i++) {
+					final FinishedSpan span = this.failedCandidates.get(i);
+					mismatch.append(System.lineSeparator())
+						.append("     span '")
+						.append(span.getName())
+						.append("' (id=")
+						.append(span.getSpanId())
+						.append(", duration=")
+						.append(FinishedSpans.duration(span))
+						.append(") does not match [")
+						.append(this.failedCriteria.get(i))
+						.append(']');
+				}
+				mismatches.add(mismatch.toString());
+			}
+
+			// Every match has to start after all the previous ones, so it is enough to compare
+			// the earliest match with the latest previous one
+			if (this.expectation.afterPrevious() && previous != null && previous.latestMatchStart != null
+					&& this.earliestMatch != null
+					&& this.earliestMatch.getStartTimestamp().isBefore(previous.latestMatchStart)) {
+				mismatches.add("expected " + this.expectation.describe() + " to start after every span ["
+						+ previous.expectation.matcher() + "] but span '" + this.earliestMatch.getName() + "' (id="
+						+ this.earliestMatch.getSpanId() + ") started " + this.earliestMatch.getStartTimestamp()
+						+ " before " + previous.latestMatchStart);
+			}
+		}
+
+	}
+
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.assertions;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.micrometer.tracing.exporter.FinishedSpan;
+import org.jordi.tracing.test.collector.FinishedSpans;
+
+/**
+ * Index of the spans under evaluation, to resolve the relations between them.
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+final class SpanIndex {
+
+	private final Map<String, FinishedSpan> spansById;
+
+	private SpanIndex(final Map<String, FinishedSpan> spansById) {
+		this.spansById = spansById;
+	}
+
+	static SpanIndex of(final List<FinishedSpan> spans) {
+		final Map<String, FinishedSpan> spansById = new HashMap<>(spans.size() * 2);
+		for (final FinishedSpan span : spans) {
+			spansById.put(key(span.getTraceId(), span.getSpanId()), span);
+		}
+		return new SpanIndex(spansById);
+	}
+
+	/**
+	 * Returns the parent of the given span.
+	 * @param span the span
+	 * @return the parent or {@code null} if it is a root span or its parent has not been
+	 * collected
+	 */
+	FinishedSpan parentOf(final FinishedSpan span) {
+		final String parentId = FinishedSpans.parentId(span);
+		if (parentId == null) {
+			return null;
+		}
+		return this.spansById.get(key(span.getTraceId(), parentId));
+	}
+
+	private static String key(final String traceId, final String spanId) {
+		return traceId + '/' + spanId;
+	}
+
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.assertions;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.exporter.FinishedSpan;
+import org.jordi.tracing.test.collector.FinishedSpans;
+import org.jordi.tracing.test.collector.ThreadUsage;
+
+/**
+ * Predicate over a {@link FinishedSpan}, composed by one or more criteria.
+ *
+ * <p>
+ * Matchers are created with the static factory methods and combined with
+ * {@link #and(SpanMatcher)}. They are evaluated by {@link SpanExpectations}.
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public final class SpanMatcher {
+
+	private final List<Criterion> criteria;
+
+	private SpanMatcher(final List<Criterion> criteria) {
+		this.criteria = criteria;
+	}
+
+	/**
+	 * Matches the spans with the given name.
+	 * @param name the span name
+	 * @return the matcher
+	 */
+	public static SpanMatcher named(final String name) {
+		return of("name is '" + name + "'", (span, index) -> name.equals(span.getName()));
+	}
+
+	/**
+	 * Matches the spans of the given kind.
+	 * @param kind the span kind, {@code null} for local spans
+	 * @return the matcher
+	 */
+	public static SpanMatcher ofKind(final Span.Kind kind) {
+		return of("kind is " + kind, (span, index) -> span.getKind() == kind);
+	}
+
+	/**
+	 * Matches the spans with the given tag key, whatever its value is.
+	 * @param key the tag key
+	 * @return the matcher
+	 */
+	public static SpanMatcher withTag(final String key) {
+		return of("has tag '" + key + "'", (span, index) -> span.getTags().containsKey(key));
+	}
+
+	/**
+	 * Matches the spans with the given tag.
+	 * @param key the tag key
+	 * @param value the tag value
+	 * @return the matcher
+	 */
+	public static SpanMatcher withTag(final String key, final String value) {
+		return of("has tag '" + key + "'='" + value + "'",
+				(span, index) -> Objects.equals(value, span.getTags().get(key)));
+	}
+
+	/**
+	 * Matches the spans which took less than the given duration.
+	 * @param duration the exclusive upper bound
+	 * @return the matcher
+	 */
+	public static SpanMatcher durationUnder(final Duration duration) {
+		return of("duration < " + duration, (span, index) -> FinishedSpans.duration(span).compareTo(duration) < 0);
+	}
+
+	/**
+	 * Matches the spans which took at least the given duration.
+	 * @param duration the inclusive lower bound
+	 * @return the matcher
+	 */
+	public static SpanMatcher durationAtLeast(final Duration duration) {
+		return of("duration >= " + duration, (span, index) -> FinishedSpans.duration(span).compareTo(duration) >= 0);
+	}
+
+	/**
+	 * Matches the spans whose thread allocated less than the given bytes. The
+	 * {@link ThreadUsage} of the spans has to be recorded, otherwise they do not match.
+	 * @param bytes the exclusive upper bound
+	 * @return the matcher
+	 */
+	public static SpanMatcher allocatesUnder(final long bytes) {
+		return of("allocated bytes < " + bytes, (span, index) -> ThreadUsage.of(span)
+			.map((threadUsage) -> threadUsage.getAllocatedBytes() < bytes)
+			.orElse(false));
+	}
+
+	/**
+	 * Matches the spans whose thread spent less than the given CPU time. The
+	 * {@link ThreadUsage} of the spans has to be recorded, otherwise they do not match.
+	 * @param cpuTime the exclusive upper bound
+	 * @return the matcher
+	 */
+	public static SpanMatcher cpuTimeUnder(final Duration cpuTime) {
+		return of("cpu time < " + cpuTime, (span, index) -> ThreadUsage.of(span)
+			.map((threadUsage) -> threadUsage.getCpuTime().compareTo(cpuTime) < 0)
+			.orElse(false));
+	}
+
+	/**
+	 * Matches the spans without parent.
+	 * @return the matcher
+	 */
+	public static SpanMatcher root() {
+		return of("is root", (span, index) -> FinishedSpans.isRoot(span));
+	}
+
+	/**
+	 * Matches the spans whose parent matches the given matcher.
+	 * @param parent the matcher of the parent
+	 * @return the matcher
+	 */
+	public static SpanMatcher childOf(final SpanMatcher parent) {
+		return of("child of (" + parent + ")", (span, index) -> {
+			final FinishedSpan parentSpan = index.parentOf(span);
+			return parentSpan != null && parent.firstFailure(parentSpan, index) == null;
+		});
+	}
+
+	/**
+	 * Matches the spans which fulfill a custom predicate.
+	 * @param description the description of the predicate, used at the failure messages
+	 * @param predicate the predicate
+	 * @return the matcher
+	 */
+	public static SpanMatcher matching(final String description, final Predicate<FinishedSpan> predicate) {
+		return of(description, (span, index) -> predicate.test(span));
+	}
+
+	/**
+	 * Returns a matcher which matches the spans matched by this and the given matcher.
+	 * @param other the other matcher
+	 * @return the combined matcher
+	 */
+	public SpanMatcher and(final SpanMatcher other) {
+		final List<Criterion> combined = new ArrayList<>(this.criteria);
+		combined.addAll(other.criteria);
+		return new SpanMatcher(List.copyOf(combined));
+	}
+
+	/**
+	 * Evaluates the criteria in order, stopping at the first one not fulfilled.
+	 * @param span the span to evaluate
+	 * @param index the index of the spans under evaluation
+	 * @return the description of the first failed criterion or {@code null} if the span
+	 * matches
+	 */
+	String firstFailure(final FinishedSpan span, final SpanIndex index) {
+		for (final Criterion criterion : this.criteria) {
+			if (!criterion.predicate().test(span, index)) {
+				return criterion.description();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns whether the span fulfills the first criterion, which is the one which
+	 * identifies the spans the matcher is about (typically the name).
+	 * @param span the span to evaluate
+	 * @param index the index of the spans under evaluation
+	 * @return {@code true} if the first criterion is fulfilled
+	 */
+	boolean isCandidate(final FinishedSpan span, final SpanIndex index) {
+		return this.criteria.get(0).predicate().test(span, index);
+	}
+
+	@Override
+	public String toString() {
+		return this.criteria.stream().map(Criterion::description).collect(Collectors.joining(" and "));
+	}
+
+	private static SpanMatcher of(final String description, final SpanPredicate predicate) {
+		return new SpanMatcher(List.of(new Criterion(description, predicate)));
+	}
+
+	@FunctionalInterface
+	interface SpanPredicate {
+
+		boolean test(FinishedSpan span, SpanIndex index);
+
+	}
+
+	private record Criterion(String description, SpanPredicate predicate) {
+
+	}
+
+}
@@ -16,12 +16,19 @@
 
 package org.jordi.tracing.test.autoconfigure;
 
+import java.util.List;
+
+import brave.TracingCustomizer;
 import brave.handler.SpanHandler;
 import brave.sampler.Sampler;
+import org.jordi.tracing.test.clock.brave.VirtualClockSpanHandler;
 import org.jordi.tracing.test.collector.SpanCollector;
+import org.jordi.tracing.test.collector.SpanProcessingTimings;
 import org.jordi.tracing.test.collector.brave.BraveInMemorySpanHandlerCollector;
 import org.jordi.tracing.test.collector.brave.InMemorySpanHandler;
+import org.jordi.tracing.test.collector.brave.TimedSpanHandler;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -41,8 +48,8 @@ import org.springframework.context.annotation.Bean;
 public class BraveTracingTestAutoConfiguration {
 
 	@Bean
-	SpanHandler testSpanHandler() {
-		return new InMemorySpanHandler();
+	SpanHandler testSpanHandler(@Value("${tracing.test.thread-usage:false}") final boolean recordThreadUsage) {
+		return new InMemorySpanHandler(recordThreadUsage);
 	}
 
 	@Bean
@@ -50,10 +57,31 @@ public class BraveTracingTestAutoConfiguration {
 		return new BraveInMemorySpanHandlerCollector(spanHandler);
 	}
 
+	// The handlers of the application are measured, so the tests can assert the overhead
+	// they add to every span
+	@Bean
+	TracingCustomizer timedSpanHandlersCustomizer(final SpanCollector spanCollector) {
+		final SpanProcessingTimings processingTimings = spanCollector.getProcessingTimings();
+
+		return (builder) -> {
+			final List<SpanHandler> spanHandlers = List.copyOf(builder.spanHandlers());
+			builder.clearSpanHandlers();
+
+			for (final SpanHandler spanHandler : spanHandlers) {
+				builder.addSpanHandler(isTestSpanHandler(spanHandler) ? spanHandler
+						: new TimedSpanHandler(spanHandler, processingTimings.register(spanHandler)));
+			}
+		};
+	}
+
 	// Needed to execute the SpanHandler
 	@Bean
 	Sampler braveSampler() {
 		return Sampler.ALWAYS_SAMPLE;
 	}
 
+	private static boolean isTestSpanHandler(final SpanHandler spanHandler) {
+		return spanHandler instanceof InMemorySpanHandler || spanHandler instanceof VirtualClockSpanHandler;
+	}
+
 }
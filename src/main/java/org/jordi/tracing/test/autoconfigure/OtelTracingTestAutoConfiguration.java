@@ -19,16 +19,18 @@ package org.jordi.tracing.test.autoconfigure;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import io.opentelemetry.api.trace.Tracer;
-import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
 import io.opentelemetry.sdk.trace.SdkTracerProvider;
 import io.opentelemetry.sdk.trace.SdkTracerProviderBuilder;
 import io.opentelemetry.sdk.trace.SpanProcessor;
 import io.opentelemetry.sdk.trace.export.BatchSpanProcessor;
-import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
 import org.jordi.tracing.test.collector.SpanCollector;
-import org.jordi.tracing.test.collector.otel.OtelInMemoryExporterSpanCollector;
+import org.jordi.tracing.test.collector.SpanProcessingTimings;
+import org.jordi.tracing.test.collector.otel.CollectingSpanProcessor;
+import org.jordi.tracing.test.collector.otel.OtelSpanProcessorCollector;
+import org.jordi.tracing.test.collector.otel.TimedSpanProcessor;
 
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.actuate.autoconfigure.tracing.SdkTracerProviderBuilderCustomizer;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
@@ -63,17 +65,22 @@ public class OtelTracingTestAutoConfiguration {
 	}
 
 	@Bean
-	SdkTracerProvider testSdkTracerProvider(final InMemorySpanExporter testSpanExporter,
-			final ObjectProvider<SpanProcessor> spanProcessors,
+	SdkTracerProvider testSdkTracerProvider(final CollectingSpanProcessor testSpanProcessor,
+			final SpanCollector spanCollector, final ObjectProvider<SpanProcessor> spanProcessors,
 			final ObjectProvider<SdkTracerProviderBuilderCustomizer> customizers) {
 
 		final SdkTracerProviderBuilder builder = SdkTracerProvider.builder();
+		final SpanProcessingTimings processingTimings = spanCollector.getProcessingTimings();
 
+		// The processors of the application are measured, so the tests can assert the
+		// overhead they add to every span
 		spanProcessors.orderedStream()
 			.filter((spanProcessor) -> !(spanProcessor instanceof BatchSpanProcessor))
+			.filter((spanProcessor) -> spanProcessor != testSpanProcessor)
+			.map((spanProcessor) -> new TimedSpanProcessor(spanProcessor, processingTimings.register(spanProcessor)))
 			.forEach(builder::addSpanProcessor);
 
-		builder.addSpanProcessor(SimpleSpanProcessor.create(testSpanExporter));
+		builder.addSpanProcessor(testSpanProcessor);
 
 		customizers.orderedStream().forEach((customizer) -> customizer.customize(builder));
 
@@ -81,13 +88,14 @@ public class OtelTracingTestAutoConfiguration {
 	}
 
 	@Bean
-	InMemorySpanExporter testSpanExporter() {
-		return InMemorySpanExporter.create();
+	CollectingSpanProcessor testSpanProcessor(
+			@Value("${tracing.test.thread-usage:false}") final boolean recordThreadUsage) {
+		return new CollectingSpanProcessor(recordThreadUsage);
 	}
 
 	@Bean
-	SpanCollector spanCollector(InMemorySpanExporter testSpanExporter) {
-		return new OtelInMemoryExporterSpanCollector(testSpanExporter);
+	SpanCollector spanCollector(CollectingSpanProcessor testSpanProcessor) {
+		return new OtelSpanProcessorCollector(testSpanProcessor);
 	}
 
 }
@@ -0,0 +1,44 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.autoconfigure;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.jordi.tracing.test.collector.SpanCollector;
+import org.jordi.tracing.test.metrics.SpanMetricsRecorder;
+
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Auto-configuration for recording the collected spans as metrics.
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+@AutoConfiguration(after = { BraveTracingTestAutoConfiguration.class, OtelTracingTestAutoConfiguration.class })
+@ConditionalOnClass(MeterRegistry.class)
+@ConditionalOnBean(SpanCollector.class)
+public class SpanMetricsTestAutoConfiguration {
+
+	@Bean
+	SpanMetricsRecorder spanMetricsRecorder(final SpanCollector spanCollector) {
+		return new SpanMetricsRecorder(spanCollector);
+	}
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.autoconfigure;
+
+import brave.TracingCustomizer;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import org.jordi.tracing.test.clock.VirtualClock;
+import org.jordi.tracing.test.clock.brave.VirtualClockSpanHandler;
+import org.jordi.tracing.test.clock.otel.OtelVirtualClock;
+
+import org.springframework.boot.actuate.autoconfigure.tracing.SdkTracerProviderBuilderCustomizer;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Auto-configuration of a {@link VirtualClock} as the clock of the spans.
+ *
+ * <p>
+ * It is enabled with {@code tracing.test.virtual-clock=true}, usually through
+ * {@code @TracingTest(virtualClock = true)}.
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+@AutoConfiguration
+@ConditionalOnProperty(value = "tracing.test.virtual-clock", havingValue = "true")
+public class VirtualClockTestAutoConfiguration {
+
+	@Bean
+	VirtualClock virtualClock() {
+		return new VirtualClock();
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(SdkTracerProvider.class)
+	static class OtelVirtualClockConfiguration {
+
+		@Bean
+		SdkTracerProviderBuilderCustomizer virtualClockCustomizer(final VirtualClock virtualClock) {
+			return (builder) -> builder.setClock(new OtelVirtualClock(virtualClock));
+		}
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@ConditionalOnClass(TracingCustomizer.class)
+	static class BraveVirtualClockConfiguration {
+
+		@Bean
+		TracingCustomizer virtualClockCustomizer(final VirtualClock virtualClock) {
+			return (builder) -> new VirtualClockSpanHandler(virtualClock).addTo(builder);
+		}
+
+	}
+
+}
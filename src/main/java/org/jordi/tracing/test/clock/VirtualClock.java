@@ -0,0 +1,107 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.clock;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clock which only moves when the test advances it, so the timestamps and durations of
+ * the spans are exact and reproducible without sleeping.
+ *
+ * <p>
+ * Example of use:
+ *
+ * <pre>
+ * final Span span = this.tracer.nextSpan().name("span").start();
+ * this.clock.advance(Duration.ofMillis(150));
+ * span.end();
+ *
+ * // the duration of the span is exactly 150 ms
+ * </pre>
+ *
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public final class VirtualClock {
+
+	private final AtomicLong epochNanos;
+
+	/**
+	 * Creates a clock which starts at the current time.
+	 */
+	public VirtualClock() {
+		this(Instant.now());
+	}
+
+	/**
+	 * Creates a clock which starts at the given instant.
+	 * @param start the initial time of the clock
+	 */
+	public VirtualClock(final Instant start) {
+		this.epochNanos = new AtomicLong(TimeUnit.SECONDS.toNanos(start.getEpochSecond()) + start.getNano());
+	}
+
+	/**
+	 * Moves the clock forward.
+	 * @param duration how much to move the clock
+	 * @return this clock
+	 * @throws IllegalArgumentException if the duration is negative
+	 */
+	public VirtualClock advance(final Duration duration) {
+		if (duration.isNegative()) {
+			throw new IllegalArgumentException("The clock can not go backwards: " + duration);
+		}
+		this.epochNanos.addAndGet(duration.toNanos());
+		return this;
+	}
+
+	/**
+	 * Returns the current time of the clock.
+	 * @return the current time
+	 */
+	public Instant instant() {
+		final long nanos = this.epochNanos.get();
+		return Instant.ofEpochSecond(0, nanos);
+	}
+
+	/**
+	 * Returns the current time of the clock, in nanoseconds since the epoch.
+	 * @return the current epoch nanoseconds
+	 */
+	public long epochNanos() {
+		return this.epochNanos.get();
+	}
+
+	/**
+	 * Returns the current time of the clock, in microseconds since the epoch.
+	 * @return the current epoch microseconds
+	 */
+	public long epochMicros() {
+		return TimeUnit.NANOSECONDS.toMicros(this.epochNanos.get());
+	}
+
+	@Override
+	public String toString() {
+		return "VirtualClock{" + this.instant() + "}";
+	}
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.clock.brave;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import brave.Tracing;
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import org.jordi.tracing.test.clock.VirtualClock;
+
+/**
+ * Brave {@link SpanHandler} which sets the timestamps of the spans from a
+ * {@link VirtualClock}.
+ *
+ * <p>
+ * Brave only reads its {@link Tracing.Builder#clock(brave.Clock) clock} once per trace
+ * and measures the rest with {@link System#nanoTime()}, so the timestamps have to be
+ * overwritten when the span ends. The start timestamp is the virtual time when the span
+ * is created, as brave does not notify when it starts. It has to be the first handler to
+ * let the rest of them see the virtual timestamps. The start timestamps are weakly
+ * referenced by their trace context, so the spans which brave drops without ending them,
+ * such as the spans still open when the tracing is closed, are released with it.
+ * </p>
+ *
+ * <p>
+ * Only the timestamps which brave took from its tick clock are overwritten, those are the
+ * ones between the time of the clock when the local root started and that time plus the
+ * real time elapsed since then. The timestamps given explicitly to
+ * {@link brave.Span#start(long)} or {@link brave.Span#finish(long)} are kept, unless they
+ * happen to fall in that window.
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public final class VirtualClockSpanHandler extends SpanHandler {
+
+	private final VirtualClock virtualClock;
+
+	private final Map<TraceContext, Start> starts = Collections.synchronizedMap(new WeakHashMap<>());
+
+	private final ThreadLocal<Start> tickClocks = new ThreadLocal<>();
+
+	/**
+	 * Constructor.
+	 * @param virtualClock the virtual clock
+	 */
+	public VirtualClockSpanHandler(final VirtualClock virtualClock) {
+		this.virtualClock = virtualClock;
+	}
+
+	/**
+	 * Adds this handler to the tracing builder, before the handlers already added.
+	 * @param builder the tracing builder
+	 */
+	public void addTo(final Tracing.Builder builder) {
+		final List<SpanHandler> spanHandlers = List.copyOf(builder.spanHandlers());
+		builder.clearSpanHandlers();
+		builder.addSpanHandler(this);
+		spanHandlers.forEach(builder::addSpanHandler);
+		builder.clock(this::tickClockBase);
+	}
+
+	// brave only reads its clock to create the tick clock of a local root, just before
+	// calling begin on the same thread
+	private long tickClockBase() {
+		final long now = this.virtualClock.epochMicros();
+		this.tickClocks.set(new Start(now, now, System.nanoTime()));
+		return now;
+	}
+
+	@Override
+	public boolean begin(final TraceContext context, final MutableSpan span, final TraceContext parent) {
+		final long now = this.virtualClock.epochMicros();
+		// brave shares the tick clock of the parent while it is in progress
+		final Start parentStart = (parent != null) ? this.starts.get(parent) : null;
+		final Start tickClock = this.tickClocks.get();
+		this.tickClocks.remove();
+		if (parentStart != null) {
+			this.starts.put(context, parentStart.child(now));
+		}
+		else if (tickClock != null) {
+			this.starts.put(context, tickClock.child(now));
+		}
+		else {
+			this.starts.put(context, new Start(now, now, System.nanoTime()));
+		}
+		return true;
+	}
+
+	@Override
+	public boolean end(final TraceContext context, final MutableSpan span, final Cause cause) {
+		final Start start = this.starts.remove(context);
+		if (cause == Cause.ABANDONED) {
+			return true;
+		}
+
+		final long now = this.virtualClock.epochMicros();
+		if (start == null) {
+			span.startTimestamp(now);
+			span.finishTimestamp(now);
+			return true;
+		}
+		if (start.isFromTickClock(span.startTimestamp())) {
+			span.startTimestamp(start.epochMicros());
+		}
+		if (start.isFromTickClock(span.finishTimestamp())) {
+			span.finishTimestamp(now);
+		}
+		return true;
+	}
+
+	@Override
+	public boolean handlesAbandoned() {
+		return true;
+	}
+
+	/**
+	 * Virtual start of a span and the base of the brave tick clock which times it.
+	 *
+	 * @param epochMicros the virtual time when the span was created
+	 * @param tickEpochMicros the virtual time when the tick clock was created
+	 * @param tickNanos the {@link System#nanoTime()} just before the tick clock was created
+	 */
+	private record Start(long epochMicros, long tickEpochMicros, long tickNanos) {
+
+		Start child(final long epochMicros) {
+			return new Start(epochMicros, this.tickEpochMicros, this.tickNanos);
+		}
+
+		boolean isFromTickClock(final long timestamp) {
+			final long elapsedMicros = (System.nanoTime() - this.tickNanos) / 1000;
+			return timestamp == 0L
+					|| (timestamp >= this.tickEpochMicros && timestamp <= this.tickEpochMicros + elapsedMicros);
+		}
+
+	}
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.clock.otel;
+
+import io.opentelemetry.sdk.common.Clock;
+import org.jordi.tracing.test.clock.VirtualClock;
+
+/**
+ * Otel {@link Clock} which reads the time of a {@link VirtualClock}.
+ *
+ * <p>
+ * Both the wall time and the monotonic time are the virtual time, so the spans measure
+ * their durations with it.
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public final class OtelVirtualClock implements Clock {
+
+	private final VirtualClock virtualClock;
+
+	/**
+	 * Constructor.
+	 * @param virtualClock the virtual clock
+	 */
+	public OtelVirtualClock(final VirtualClock virtualClock) {
+		this.virtualClock = virtualClock;
+	}
+
+	@Override
+	public long now() {
+		return this.virtualClock.epochNanos();
+	}
+
+	@Override
+	public long nanoTime() {
+		return this.virtualClock.epochNanos();
+	}
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.collector;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import io.micrometer.tracing.exporter.FinishedSpan;
+
+/**
+ * Base class for {@link SpanCollector} implementations, which manages the
+ * {@link SpanListener}s and the {@link SpanProcessingTimings}.
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public abstract class AbstractSpanCollector implements SpanCollector {
+
+	private final List<SpanListener> spanListeners = new CopyOnWriteArrayList<>();
+
+	private final SpanProcessingTimings processingTimings = new SpanProcessingTimings();
+
+	@Override
+	public void addSpanListener(final SpanListener spanListener) {
+		this.spanListeners.add(spanListener);
+	}
+
+	@Override
+	public void removeSpanListener(final SpanListener spanListener) {
+		this.spanListeners.remove(spanListener);
+	}
+
+	@Override
+	public SpanProcessingTimings getProcessingTimings() {
+		return this.processingTimings;
+	}
+
+	@Override
+	public void reset() {
+		this.doReset();
+		this.processingTimings.reset();
+		this.spanListeners.forEach(SpanListener::onReset);
+	}
+
+	/**
+	 * Clears the collected spans.
+	 */
+	protected abstract void doReset();
+
+	/**
+	 * Returns whether there is any {@link SpanListener} registered. It allows to avoid
+	 * the conversion to {@link FinishedSpan} when nobody is listening.
+	 * @return {@code true} if there is any listener
+	 */
+	protected boolean hasSpanListeners() {
+		return !this.spanListeners.isEmpty();
+	}
+
+	/**
+	 * Notifies the registered {@link SpanListener}s that a span has been started.
+	 * @param traceId the trace id of the span
+	 * @param spanId the span id
+	 */
+	protected void publishStart(final String traceId, final String spanId) {
+		for (final SpanListener spanListener : this.spanListeners) {
+			spanListener.onSpanStarted(traceId, spanId);
+		}
+	}
+
+	/**
+	 * Notifies the registered {@link SpanListener}s that a span has been collected.
+	 * @param span the collected span
+	 */
+	protected void publish(final FinishedSpan span) {
+		for (final SpanListener spanListener : this.spanListeners) {
+			spanListener.onSpanFinished(span);
+		}
+	}
+
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.collector;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and failures of a span processing component (an otel {@code SpanProcessor} or
+ * a brave {@code SpanHandler}) when spans start and end.
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ * @see SpanProcessingTimings
+ */
+public final class ComponentTimings {
+
+	private final String name;
+
+	private final Class<?> type;
+
+	private final Phase start = new Phase();
+
+	private final Phase end = new Phase();
+
+	ComponentTimings(final String name, final Class<?> type) {
+		this.name = name;
+		this.type = type;
+	}
+
+	/**
+	 * Records the invocation of the component when a span starts.
+	 * @param nanos the duration of the invocation
+	 * @param failed whether the invocation threw an exception
+	 */
+	public void recordStart(final long nanos, final boolean failed) {
+		this.start.record(nanos, failed);
+	}
+
+	/**
+	 * Records the invocation of the component when a span ends.
+	 * @param nanos the duration of the invocation
+	 * @param failed whether the invocation threw an exception
+	 */
+	public void recordEnd(final long nanos, final boolean failed) {
+		this.end.record(nanos, failed);
+	}
+
+	/**
+	 * Returns the name of the component.
+	 * @return the name
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Returns the type of the component.
+	 * @return the type
+	 */
+	public Class<?> getType() {
+		return this.type;
+	}
+
+	/**
+	 * Returns how many times the component has been invoked when a span starts.
+	 * @return the start invocations
+	 */
+	public long getStartCount() {
+		return this.start.count.sum();
+	}
+
+	/**
+	 * Returns how many times the component has been invoked when a span ends.
+	 * @return the end invocations
+	 */
+	public long getEndCount() {
+		return this.end.count.sum();
+	}
+
+	/**
+	 * Returns the mean latency of the component when a span starts.
+	 * @return the mean start latency
+	 */
+	public Duration getMeanStart() {
+		return this.start.mean();
+	}
+
+	/**
+	 * Returns the maximum latency of the component when a span starts.
+	 * @return the max start latency
+	 */
+	public Duration getMaxStart() {
+		return Duration.ofNanos(this.start.max.get());
+	}
+
+	/**
+	 * Returns the mean latency of the component when a span ends.
+	 * @return the mean end latency
+	 */
+	public Duration getMeanEnd() {
+		return this.end.mean();
+	}
+
+	/**
+	 * Returns the maximum latency of the component when a span ends.
+	 * @return the max end latency
+	 */
+	public Duration getMaxEnd() {
+		return Duration.ofNanos(this.end.max.get());
+	}
+
+	/**
+	 * Returns the mean latency added by the component to every span, adding up the start
+	 * and the end invocations.
+	 * @return the mean overhead per span
+	 */
+	public Duration getMeanOverhead() {
+		final long spans = Math.max(this.getStartCount(), this.getEndCount());
+		if (spans == 0) {
+			return Duration.ZERO;
+		}
+		return Duration.ofNanos((this.start.total.sum() + this.end.total.sum()) / spans);
+	}
+
+	/**
+	 * Returns how many invocations threw an exception.
+	 * @return the failed invocations
+	 */
+	public long getErrors() {
+		return this.start.errors.sum() + this.end.errors.sum();
+	}
+
+	void reset() {
+		this.start.reset();
+		this.end.reset();
+	}
+
+	@Override
+	public String toString() {
+		return this.name + " start(count=" + this.getStartCount() + " mean=" + this.getMeanStart() + " max="
+				+ this.getMaxStart() + ") end(count=" + this.getEndCount() + " mean=" + this.getMeanEnd() + " max="
+				+ this.getMaxEnd() + ") errors=" + this.getErrors();
+	}
+
+	private static final class Phase {
+
+		private final LongAdder count = new LongAdder();
+
+		private final LongAdder total = new LongAdder();
+
+		private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+		private final LongAdder errors = new LongAdder();
+
+		void record(final long nanos, final boolean failed) {
+			this.count.increment();
+			this.total.add(nanos);
+			this.max.accumulate(nanos);
+			if (failed) {
+				this.errors.increment();
+			}
+		}
+
+		Duration mean() {
+			final long invocations = this.count.sum();
+			return (invocations == 0) ? Duration.ZERO : Duration.ofNanos(this.total.sum() / invocations);
+		}
+
+		void reset() {
+			this.count.reset();
+			this.total.reset();
+			this.max.reset();
+			this.errors.reset();
+		}
+
+	}
+
+}
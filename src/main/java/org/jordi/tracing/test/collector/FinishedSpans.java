@@ -0,0 +1,156 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.collector;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import brave.handler.MutableSpan;
+import io.micrometer.tracing.brave.bridge.BraveFinishedSpan;
+import io.micrometer.tracing.exporter.FinishedSpan;
+import io.micrometer.tracing.otel.bridge.OtelFinishedSpan;
+import io.opentelemetry.api.common.AttributeKey;
+
+import org.springframework.util.ClassUtils;
+
+/**
+ * Utility methods for {@link FinishedSpan}s which hide the differences between tracing
+ * implementations.
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public final class FinishedSpans {
+
+	private static final boolean BRAVE_PRESENT = ClassUtils
+		.isPresent("io.micrometer.tracing.brave.bridge.BraveFinishedSpan", FinishedSpans.class.getClassLoader());
+
+	private static final boolean OTEL_PRESENT = ClassUtils
+		.isPresent("io.micrometer.tracing.otel.bridge.OtelFinishedSpan", FinishedSpans.class.getClassLoader());
+
+	private FinishedSpans() {
+	}
+
+	/**
+	 * Returns the id of the parent of the span.
+	 * @param span the span
+	 * @return the parent id or {@code null} if it is a root span. OTel reports an invalid
+	 * (all zeros) id for root spans instead of {@code null}
+	 */
+	public static String parentId(final FinishedSpan span) {
+		final String parentId = span.getParentId();
+		if (parentId == null || parentId.isEmpty() || isAllZeros(parentId)) {
+			return null;
+		}
+		return parentId;
+	}
+
+	/**
+	 * Returns whether the span has no parent.
+	 * @param span the span
+	 * @return {@code true} if it is a root span
+	 */
+	public static boolean isRoot(final FinishedSpan span) {
+		return parentId(span) == null;
+	}
+
+	/**
+	 * Returns the duration of the span.
+	 * @param span the span
+	 * @return the duration
+	 */
+	public static Duration duration(final FinishedSpan span) {
+		return Duration.between(span.getStartTimestamp(), span.getEndTimestamp());
+	}
+
+	/**
+	 * Returns the tags of the span as the application reports them, without the
+	 * {@link ThreadUsage} tags added by the collectors.
+	 * @param span the span
+	 * @return the tags of the application
+	 */
+	public static Map<String, String> tags(final FinishedSpan span) {
+		final Map<String, String> tags = span.getTags();
+		if (!tags.containsKey(ThreadUsage.CPU_TIME_TAG) && !tags.containsKey(ThreadUsage.ALLOCATED_BYTES_TAG)) {
+			return tags;
+		}
+		final Map<String, String> applicationTags = new HashMap<>(tags);
+		applicationTags.remove(ThreadUsage.CPU_TIME_TAG);
+		applicationTags.remove(ThreadUsage.ALLOCATED_BYTES_TAG);
+		return applicationTags;
+	}
+
+	/**
+	 * Returns the name of the service which reported the span: the local service name of
+	 * brave spans or the {@code service.name} resource attribute of otel spans.
+	 * @param span the span
+	 * @return the service name or {@code null} if it is unknown
+	 */
+	public static String localServiceName(final FinishedSpan span) {
+		if (BRAVE_PRESENT && BraveSpans.isBrave(span)) {
+			return BraveSpans.localServiceName(span);
+		}
+		if (OTEL_PRESENT && OtelSpans.isOtel(span)) {
+			return OtelSpans.localServiceName(span);
+		}
+		return null;
+	}
+
+	private static boolean isAllZeros(final String id) {
+		for (int i = 0; i < id.length(); i++) {
+			if (id.charAt(i) != '0') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Isolates the brave classes, which may not be present.
+	 */
+	private static final class BraveSpans {
+
+		static boolean isBrave(final FinishedSpan span) {
+			return span instanceof BraveFinishedSpan;
+		}
+
+		static String localServiceName(final FinishedSpan span) {
+			final MutableSpan mutableSpan = BraveFinishedSpan.toBrave(span);
+			return mutableSpan.localServiceName();
+		}
+
+	}
+
+	/**
+	 * Isolates the otel classes, which may not be present.
+	 */
+	private static final class OtelSpans {
+
+		private static final AttributeKey<String> SERVICE_NAME = AttributeKey.stringKey("service.name");
+
+		static boolean isOtel(final FinishedSpan span) {
+			return span instanceof OtelFinishedSpan;
+		}
+
+		static String localServiceName(final FinishedSpan span) {
+			return OtelFinishedSpan.toOtel(span).getResource().getAttribute(SERVICE_NAME);
+		}
+
+	}
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.collector;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the spans which have been started but not finished yet.
+ *
+ * <p>
+ * The spans are keyed by the span context of each tracing implementation. Nothing is
+ * registered when the {@link UnfinishedSpansTracking tracking} is
+ * {@link UnfinishedSpansTracking#NONE}.
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public final class InFlightSpans {
+
+	private static final BooleanSupplier ALWAYS_STARTED = () -> true;
+
+	private final Map<Object, UnfinishedSpan> spans = new ConcurrentHashMap<>();
+
+	private volatile UnfinishedSpansTracking tracking = UnfinishedSpansTracking.SPANS;
+
+	/**
+	 * Registers a started span.
+	 * @param context the span context, used as key
+	 * @param traceId the trace id
+	 * @param spanId the span id
+	 * @param name supplier of the span name, as it can change while the span is open
+	 */
+	public void started(final Object context, final String traceId, final String spanId,
+			final Supplier<String> name) {
+		this.started(context, traceId, spanId, name, ALWAYS_STARTED);
+	}
+
+	/**
+	 * Registers a span which can have been created but not started yet, as Brave
+	 * notifies the spans when they are created. It is only reported once started.
+	 * @param context the span context, used as key
+	 * @param traceId the trace id
+	 * @param spanId the span id
+	 * @param name supplier of the span name, as it can change while the span is open
+	 * @param started whether the span has been started
+	 */
+	public void started(final Object context, final String traceId, final String spanId,
+			final Supplier<String> name, final BooleanSupplier started) {
+		final UnfinishedSpansTracking tracking = this.tracking;
+		if (tracking == UnfinishedSpansTracking.NONE) {
+			return;
+		}
+		final Throwable startedAt = (tracking == UnfinishedSpansTracking.SPANS_AND_STACK_TRACES)
+				? new Throwable("Span started here") : null;
+		this.spans.put(context, new UnfinishedSpan(name, traceId, spanId, started, startedAt));
+	}
+
+	/**
+	 * Unregisters a finished span.
+	 * @param context the span context
+	 */
+	public void finished(final Object context) {
+		this.spans.remove(context);
+	}
+
+	/**
+	 * Returns the spans which are still open.
+	 * @return the unfinished spans
+	 */
+	public List<UnfinishedSpan> getUnfinishedSpans() {
+		return this.spans.values().stream().filter(UnfinishedSpan::isStarted).toList();
+	}
+
+	/**
+	 * Configures how the spans are tracked from now on.
+	 * @param tracking the tracking of the unfinished spans
+	 */
+	public void setTracking(final UnfinishedSpansTracking tracking) {
+		this.tracking = tracking;
+		if (tracking == UnfinishedSpansTracking.NONE) {
+			this.spans.clear();
+		}
+	}
+
+	/**
+	 * Forgets all the open spans.
+	 */
+	public void clear() {
+		this.spans.clear();
+	}
+
+}
@@ -35,10 +35,42 @@ public interface SpanCollector {
 	List<FinishedSpan> getFinishedSpans();
 
 	/**
-	 * Clears the internal {@code List} of finished {@code Span}s.
+	 * Returns the spans which have been started but not finished yet.
+	 * @return the unfinished spans
+	 */
+	List<UnfinishedSpan> getUnfinishedSpans();
+
+	/**
+	 * Configures how the spans which have been started but not finished are tracked. By
+	 * default they are tracked without their stack traces.
+	 * @param tracking the tracking of the unfinished spans
+	 */
+	void trackUnfinishedSpans(UnfinishedSpansTracking tracking);
+
+	/**
+	 * Returns the timings of the span processing components of the application.
+	 * @return the span processing timings
+	 */
+	SpanProcessingTimings getProcessingTimings();
+
+	/**
+	 * Clears the internal {@code List} of finished {@code Span}s and forgets the unfinished
+	 * ones and the span processing timings.
 	 */
 	void reset();
 
+	/**
+	 * Registers a listener which is notified of every span collected from now on.
+	 * @param spanListener the listener
+	 */
+	void addSpanListener(SpanListener spanListener);
+
+	/**
+	 * Removes a previously registered listener.
+	 * @param spanListener the listener
+	 */
+	void removeSpanListener(SpanListener spanListener);
+
 	/**
 	 * Closes this {@link SpanCollector}, releasing any resources.
 	 */
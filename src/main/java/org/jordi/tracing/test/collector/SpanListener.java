@@ -0,0 +1,53 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.collector;
+
+import io.micrometer.tracing.exporter.FinishedSpan;
+
+/**
+ * Listener notified when a span is started and when it is collected by a
+ * {@link SpanCollector}.
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ * @see SpanCollector#addSpanListener(SpanListener)
+ */
+@FunctionalInterface
+public interface SpanListener {
+
+	/**
+	 * Called when a span is started. Brave notifies the spans when they are created, so
+	 * they can be notified before being started.
+	 * @param traceId the trace id of the span
+	 * @param spanId the span id
+	 */
+	default void onSpanStarted(final String traceId, final String spanId) {
+	}
+
+	/**
+	 * Called when a finished span is collected.
+	 * @param span the finished span
+	 */
+	void onSpanFinished(FinishedSpan span);
+
+	/**
+	 * Called when the collected spans are cleared.
+	 */
+	default void onReset() {
+	}
+
+}
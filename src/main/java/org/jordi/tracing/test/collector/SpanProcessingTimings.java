@@ -0,0 +1,168 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.collector;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Timings of the span processing components (otel {@code SpanProcessor}s or brave
+ * {@code SpanHandler}s) registered at the application, which run at every span start and
+ * end.
+ *
+ * <p>
+ * A slow component adds its latency to every span, so the tests can assert an overhead
+ * budget per component:
+ *
+ * <pre>
+ * this.spanCollector.getProcessingTimings()
+ *   .assertMeanOverheadUnder(MySpanProcessor.class, Duration.ofNanos(50_000));
+ * </pre>
+ *
+ * </p>
+ *
+ * <p>
+ * The timings are cleared with the {@link SpanCollector}.
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public final class SpanProcessingTimings {
+
+	private final List<ComponentTimings> components = new CopyOnWriteArrayList<>();
+
+	/**
+	 * Registers a component to be measured.
+	 * @param component the span processing component
+	 * @return the timings where the invocations of the component are recorded
+	 */
+	public synchronized ComponentTimings register(final Object component) {
+		final Class<?> type = component.getClass();
+		final String baseName = type.getSimpleName().isEmpty() ? type.getName() : type.getSimpleName();
+
+		String name = baseName;
+		for (int i = 2; this.findComponent(name) != null; i++) {
+			name = baseName + "#" + i;
+		}
+
+		final ComponentTimings timings = new ComponentTimings(name, type);
+		this.components.add(timings);
+		return timings;
+	}
+
+	/**
+	 * Returns the timings of all the registered components.
+	 * @return the timings of the components, in registration order
+	 */
+	public List<ComponentTimings> getComponents() {
+		return List.copyOf(this.components);
+	}
+
+	/**
+	 * Returns the timings of the component with the given name.
+	 * @param name the component name, its simple class name
+	 * @return the timings of the component
+	 * @throws AssertionError if there is no component with that name
+	 */
+	public ComponentTimings getComponent(final String name) {
+		final ComponentTimings timings = this.findComponent(name);
+		if (timings == null) {
+			throw new AssertionError("No span processing component named '" + name + "'. Components: " + this.names());
+		}
+		return timings;
+	}
+
+	/**
+	 * Returns the timings of the first component of the given type.
+	 * @param type the component type
+	 * @return the timings of the component
+	 * @throws AssertionError if there is no component of that type
+	 */
+	public ComponentTimings getComponent(final Class<?> type) {
+		for (final ComponentTimings timings : this.components) {
+			if (type.isAssignableFrom(timings.getType())) {
+				return timings;
+			}
+		}
+		throw new AssertionError(
+				"No span processing component of type '" + type.getName() + "'. Components: " + this.names());
+	}
+
+	/**
+	 * Asserts that the mean latency added by a component to every span is under a budget.
+	 * @param type the component type
+	 * @param budget the exclusive upper bound of the mean overhead per span
+	 * @return these timings
+	 * @throws AssertionError if the component exceeds the budget
+	 */
+	public SpanProcessingTimings assertMeanOverheadUnder(final Class<?> type, final Duration budget) {
+		final ComponentTimings timings = this.getComponent(type);
+		if (timings.getMeanOverhead().compareTo(budget) >= 0) {
+			throw new AssertionError("Expected " + timings.getName() + " to add less than " + budget
+					+ " per span but it adds " + timings.getMeanOverhead() + ": " + timings);
+		}
+		return this;
+	}
+
+	/**
+	 * Asserts that a component has not thrown any exception.
+	 * @param type the component type
+	 * @return these timings
+	 * @throws AssertionError if the component has failed
+	 */
+	public SpanProcessingTimings assertNoErrors(final Class<?> type) {
+		final ComponentTimings timings = this.getComponent(type);
+		if (timings.getErrors() > 0) {
+			throw new AssertionError(
+					"Expected " + timings.getName() + " not to fail but it failed " + timings.getErrors() + " time(s)");
+		}
+		return this;
+	}
+
+	/**
+	 * Clears the timings of all the components, which remain registered.
+	 */
+	public void reset() {
+		this.components.forEach(ComponentTimings::reset);
+	}
+
+	/**
+	 * Returns a human readable report of the timings, one line per component.
+	 * @return the report
+	 */
+	public String report() {
+		final StringBuilder report = new StringBuilder();
+		this.components.forEach((timings) -> report.append(timings).append(System.lineSeparator()));
+		return report.toString();
+	}
+
+	private ComponentTimings findComponent(final String name) {
+		for (final ComponentTimings timings : this.components) {
+			if (timings.getName().equals(name)) {
+				return timings;
+			}
+		}
+		return null;
+	}
+
+	private List<String> names() {
+		return this.components.stream().map(ComponentTimings::getName).toList();
+	}
+
+}
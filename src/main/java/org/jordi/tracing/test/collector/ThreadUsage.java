@@ -0,0 +1,136 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.collector;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Optional;
+
+import io.micrometer.tracing.exporter.FinishedSpan;
+
+/**
+ * CPU time and allocated bytes of the thread of a span, from its start to its end.
+ *
+ * <p>
+ * It is recorded as the {@link #CPU_TIME_TAG} and {@link #ALLOCATED_BYTES_TAG} tags of
+ * the collected spans when the collector is created with thread usage enabled. The spans
+ * of the tracer, which the exporters report, are not tagged. It is only recorded for the
+ * spans which start and end at the same thread, as the usage of other threads can not be
+ * attributed to the span.
+ * </p>
+ *
+ * <p>
+ * Brave notifies the spans when they are created, not when they are started, so the
+ * usage of Brave spans is measured from their creation.
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public final class ThreadUsage {
+
+	/**
+	 * Tag with the CPU time, in nanoseconds, spent by the thread of the span.
+	 */
+	public static final String CPU_TIME_TAG = "thread.cpu_time_ns";
+
+	/**
+	 * Tag with the bytes allocated by the thread of the span.
+	 */
+	public static final String ALLOCATED_BYTES_TAG = "thread.allocated_bytes";
+
+	private static final com.sun.management.ThreadMXBean THREAD_MX_BEAN = threadMXBean();
+
+	private final long cpuTimeNanos;
+
+	private final long allocatedBytes;
+
+	private ThreadUsage(final long cpuTimeNanos, final long allocatedBytes) {
+		this.cpuTimeNanos = cpuTimeNanos;
+		this.allocatedBytes = allocatedBytes;
+	}
+
+	/**
+	 * Returns whether the JVM can measure the CPU time and allocated bytes of the current
+	 * thread.
+	 * @return {@code true} if they can be measured
+	 */
+	public static boolean isSupported() {
+		return THREAD_MX_BEAN != null && THREAD_MX_BEAN.isCurrentThreadCpuTimeSupported()
+				&& THREAD_MX_BEAN.isThreadCpuTimeEnabled() && THREAD_MX_BEAN.isThreadAllocatedMemorySupported()
+				&& THREAD_MX_BEAN.isThreadAllocatedMemoryEnabled();
+	}
+
+	/**
+	 * Returns the thread usage recorded at the tags of a span.
+	 * @param span the span
+	 * @return the thread usage or empty if it was not recorded
+	 */
+	public static Optional<ThreadUsage> of(final FinishedSpan span) {
+		final String cpuTime = span.getTags().get(CPU_TIME_TAG);
+		final String allocatedBytes = span.getTags().get(ALLOCATED_BYTES_TAG);
+		if (cpuTime == null || allocatedBytes == null) {
+			return Optional.empty();
+		}
+		return Optional.of(new ThreadUsage(Long.parseLong(cpuTime), Long.parseLong(allocatedBytes)));
+	}
+
+	/**
+	 * Samples the usage of the current thread since it started.
+	 * @return the accumulated usage of the current thread
+	 */
+	static ThreadUsage current() {
+		return new ThreadUsage(THREAD_MX_BEAN.getCurrentThreadCpuTime(),
+				THREAD_MX_BEAN.getCurrentThreadAllocatedBytes());
+	}
+
+	/**
+	 * Returns the usage between a previous sample and this one.
+	 * @param start the previous sample
+	 * @return the difference
+	 */
+	ThreadUsage since(final ThreadUsage start) {
+		return new ThreadUsage(this.cpuTimeNanos - start.cpuTimeNanos, this.allocatedBytes - start.allocatedBytes);
+	}
+
+	/**
+	 * Returns the CPU time spent by the thread.
+	 * @return the CPU time
+	 */
+	public Duration getCpuTime() {
+		return Duration.ofNanos(this.cpuTimeNanos);
+	}
+
+	/**
+	 * Returns the bytes allocated by the thread.
+	 * @return the allocated bytes
+	 */
+	public long getAllocatedBytes() {
+		return this.allocatedBytes;
+	}
+
+	@Override
+	public String toString() {
+		return "ThreadUsage{cpuTime=" + getCpuTime() + ", allocatedBytes=" + this.allocatedBytes + "}";
+	}
+
+	private static com.sun.management.ThreadMXBean threadMXBean() {
+		return (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threadMXBean)
+				? threadMXBean : null;
+	}
+
+}
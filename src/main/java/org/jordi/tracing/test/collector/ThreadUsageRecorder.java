@@ -0,0 +1,81 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.collector;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records the {@link ThreadUsage} of the spans between their start and their end.
+ *
+ * <p>
+ * Like the {@link InFlightSpans}, the spans are keyed by the span context of each tracing
+ * implementation.
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public final class ThreadUsageRecorder {
+
+	private final Map<Object, Start> starts = new ConcurrentHashMap<>();
+
+	/**
+	 * Constructor.
+	 * @throws IllegalStateException if the JVM can not measure the thread usage
+	 */
+	public ThreadUsageRecorder() {
+		if (!ThreadUsage.isSupported()) {
+			throw new IllegalStateException("The JVM does not support measuring the CPU time and allocated bytes "
+					+ "of the threads");
+		}
+	}
+
+	/**
+	 * Samples the usage of the current thread when a span starts.
+	 * @param context the span context, used as key
+	 */
+	public void started(final Object context) {
+		this.starts.put(context, new Start(Thread.currentThread().getId(), ThreadUsage.current()));
+	}
+
+	/**
+	 * Returns the usage of the current thread since the span started.
+	 * @param context the span context
+	 * @return the usage or {@code null} if the start of the span was not recorded or it
+	 * started at another thread
+	 */
+	public ThreadUsage finished(final Object context) {
+		final Start start = this.starts.remove(context);
+		if (start == null || start.threadId() != Thread.currentThread().getId()) {
+			return null;
+		}
+		return ThreadUsage.current().since(start.usage());
+	}
+
+	/**
+	 * Forgets the spans which have started but not finished yet.
+	 */
+	public void clear() {
+		this.starts.clear();
+	}
+
+	private record Start(long threadId, ThreadUsage usage) {
+
+	}
+
+}
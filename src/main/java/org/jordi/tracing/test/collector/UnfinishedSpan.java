@@ -0,0 +1,135 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.collector;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
+import java.util.function.Supplier;
+
+/**
+ * A span which has been started but not finished yet.
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ * @see SpanCollector#getUnfinishedSpans()
+ */
+public final class UnfinishedSpan {
+
+	private static final String[] TRACING_PACKAGES = { "brave.", "io.opentelemetry.", "io.micrometer.tracing.",
+			"io.micrometer.observation.", "org.jordi.tracing.test.collector.", "java.", "jdk.internal." };
+
+	private final Supplier<String> name;
+
+	private final String traceId;
+
+	private final String spanId;
+
+	private final String threadName;
+
+	private final long startNanos;
+
+	private final BooleanSupplier started;
+
+	private final Throwable startedAt;
+
+	UnfinishedSpan(final Supplier<String> name, final String traceId, final String spanId,
+			final BooleanSupplier started, final Throwable startedAt) {
+		this.name = name;
+		this.traceId = traceId;
+		this.spanId = spanId;
+		this.threadName = Thread.currentThread().getName();
+		this.startNanos = System.nanoTime();
+		this.started = started;
+		this.startedAt = startedAt;
+	}
+
+	/**
+	 * Returns the current name of the span.
+	 * @return the span name
+	 */
+	public String getName() {
+		return this.name.get();
+	}
+
+	/**
+	 * Returns the trace id.
+	 * @return the trace id
+	 */
+	public String getTraceId() {
+		return this.traceId;
+	}
+
+	/**
+	 * Returns the span id.
+	 * @return the span id
+	 */
+	public String getSpanId() {
+		return this.spanId;
+	}
+
+	/**
+	 * Returns the name of the thread which started the span.
+	 * @return the thread name
+	 */
+	public String getThreadName() {
+		return this.threadName;
+	}
+
+	/**
+	 * Returns how long the span has been open. On Brave, it is measured from the creation
+	 * of the span, as Brave does not notify when the span is started.
+	 * @return the time since the span was started
+	 */
+	public Duration getOpenDuration() {
+		return Duration.ofNanos(System.nanoTime() - this.startNanos);
+	}
+
+	/**
+	 * Returns where the span was started, without the frames of the tracing libraries. It
+	 * is only captured with {@link UnfinishedSpansTracking#SPANS_AND_STACK_TRACES}.
+	 * @return the stack trace of the span start, empty if it was not captured
+	 */
+	public StackTraceElement[] getStartStackTrace() {
+		if (this.startedAt == null) {
+			return new StackTraceElement[0];
+		}
+		return Arrays.stream(this.startedAt.getStackTrace())
+			.filter((element) -> !isTracingFrame(element))
+			.toArray(StackTraceElement[]::new);
+	}
+
+	boolean isStarted() {
+		return this.started.getAsBoolean();
+	}
+
+	@Override
+	public String toString() {
+		return "'" + this.getName() + "' (traceId=" + this.traceId + ", spanId=" + this.spanId + ") open for "
+				+ this.getOpenDuration() + ", started at thread '" + this.threadName + "'";
+	}
+
+	private static boolean isTracingFrame(final StackTraceElement element) {
+		for (final String tracingPackage : TRACING_PACKAGES) {
+			if (element.getClassName().startsWith(tracingPackage)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
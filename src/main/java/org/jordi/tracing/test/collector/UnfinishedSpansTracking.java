@@ -0,0 +1,45 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.collector;
+
+/**
+ * How much a {@link SpanCollector} tracks the spans which have been started but not
+ * finished yet.
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ * @see SpanCollector#trackUnfinishedSpans(UnfinishedSpansTracking)
+ */
+public enum UnfinishedSpansTracking {
+
+	/**
+	 * The unfinished spans are not tracked, so there is no cost per started span.
+	 */
+	NONE,
+
+	/**
+	 * The unfinished spans are tracked, without where they were started.
+	 */
+	SPANS,
+
+	/**
+	 * The unfinished spans are tracked with the stack trace of their start. It is
+	 * expensive, as the stack trace is walked for every started span.
+	 */
+	SPANS_AND_STACK_TRACES
+
+}
@@ -20,7 +20,10 @@ import java.util.List;
 
 import io.micrometer.tracing.brave.bridge.BraveFinishedSpan;
 import io.micrometer.tracing.exporter.FinishedSpan;
+import org.jordi.tracing.test.collector.AbstractSpanCollector;
 import org.jordi.tracing.test.collector.SpanCollector;
+import org.jordi.tracing.test.collector.UnfinishedSpan;
+import org.jordi.tracing.test.collector.UnfinishedSpansTracking;
 
 /**
  * {@link SpanCollector} which returns the spans collected by a
@@ -29,7 +32,7 @@ import org.jordi.tracing.test.collector.SpanCollector;
  * @author Jordi Martinez Vicent
  * @since 1.0.0
  */
-public class BraveInMemorySpanHandlerCollector implements SpanCollector {
+public class BraveInMemorySpanHandlerCollector extends AbstractSpanCollector {
 
 	private final InMemorySpanHandler spanHandler;
 
@@ -39,6 +42,16 @@ public class BraveInMemorySpanHandlerCollector implements SpanCollector {
 	 */
 	public BraveInMemorySpanHandlerCollector(final InMemorySpanHandler spanHandler) {
 		this.spanHandler = spanHandler;
+		this.spanHandler.onBegin((context) -> {
+			if (this.hasSpanListeners()) {
+				this.publishStart(context.traceIdString(), context.spanIdString());
+			}
+		});
+		this.spanHandler.onEnd((span) -> {
+			if (this.hasSpanListeners()) {
+				this.publish(BraveFinishedSpan.fromBrave(span));
+			}
+		});
 	}
 
 	@Override
@@ -47,7 +60,17 @@ public class BraveInMemorySpanHandlerCollector implements SpanCollector {
 	}
 
 	@Override
-	public void reset() {
+	public List<UnfinishedSpan> getUnfinishedSpans() {
+		return this.spanHandler.inFlightSpans().getUnfinishedSpans();
+	}
+
+	@Override
+	public void trackUnfinishedSpans(final UnfinishedSpansTracking tracking) {
+		this.spanHandler.inFlightSpans().setTracking(tracking);
+	}
+
+	@Override
+	protected void doReset() {
 		this.spanHandler.clear();
 	}
 
@@ -16,46 +16,132 @@
 
 package org.jordi.tracing.test.collector.brave;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
 
 import brave.handler.MutableSpan;
 import brave.handler.SpanHandler;
 import brave.internal.Nullable;
 import brave.propagation.TraceContext;
+import org.jordi.tracing.test.collector.InFlightSpans;
+import org.jordi.tracing.test.collector.ThreadUsage;
+import org.jordi.tracing.test.collector.ThreadUsageRecorder;
 
 /**
  *
  * {@link SpanHandler} to store the spans in-memory.
  *
+ * <p>
+ * The spans can be ended concurrently by several threads, so they are stored in a
+ * lock-free queue which keeps the end order.
+ * </p>
+ *
  * @author Jordi Martinez Vicent
  * @since 1.0.0
  */
 public class InMemorySpanHandler extends SpanHandler {
 
-	final List<MutableSpan> spans = new ArrayList<>();
+	private final Queue<MutableSpan> spans = new ConcurrentLinkedQueue<>();
+
+	private final List<Consumer<TraceContext>> beginListeners = new CopyOnWriteArrayList<>();
+
+	private final List<Consumer<MutableSpan>> endListeners = new CopyOnWriteArrayList<>();
+
+	private final InFlightSpans inFlightSpans = new InFlightSpans();
+
+	private final ThreadUsageRecorder threadUsageRecorder;
+
+	/**
+	 * Constructor.
+	 */
+	public InMemorySpanHandler() {
+		this(false);
+	}
+
+	/**
+	 * Constructor.
+	 * @param recordThreadUsage whether to record the {@link ThreadUsage} of the spans as
+	 * tags of the collected copies
+	 */
+	public InMemorySpanHandler(final boolean recordThreadUsage) {
+		this.threadUsageRecorder = recordThreadUsage ? new ThreadUsageRecorder() : null;
+	}
 
 	public MutableSpan get(int i) {
-		return this.spans.get(i);
+		return this.spans().get(i);
 	}
 
 	public List<MutableSpan> spans() {
-		return this.spans;
+		return List.copyOf(this.spans);
 	}
 
 	@Override
 	public boolean begin(TraceContext context, MutableSpan span, @Nullable TraceContext parent) {
+		// Brave begins the spans when they are created, so they are only reported once started
+		this.inFlightSpans.started(context, context.traceIdString(), context.spanIdString(), span::name,
+				() -> span.startTimestamp() != 0L);
+		if (this.threadUsageRecorder != null) {
+			this.threadUsageRecorder.started(context);
+		}
+		this.beginListeners.forEach((listener) -> listener.accept(context));
 		return true;
 	}
 
 	@Override
 	public boolean end(TraceContext context, MutableSpan span, Cause cause) {
-		this.spans.add(span);
+		this.inFlightSpans.finished(context);
+		final MutableSpan collected = (this.threadUsageRecorder != null)
+				? withThreadUsage(span, this.threadUsageRecorder.finished(context)) : span;
+		this.spans.add(collected);
+		this.endListeners.forEach((listener) -> listener.accept(collected));
 		return true;
 	}
 
+	/**
+	 * Registers a listener which is called every time a span begins, which in Brave is
+	 * when it is created.
+	 * @param listener the listener
+	 */
+	public void onBegin(final Consumer<TraceContext> listener) {
+		this.beginListeners.add(listener);
+	}
+
+	/**
+	 * Registers a listener which is called every time a span ends.
+	 * @param listener the listener
+	 */
+	public void onEnd(final Consumer<MutableSpan> listener) {
+		this.endListeners.add(listener);
+	}
+
+	/**
+	 * Returns the spans which have begun but not ended yet.
+	 * @return the in-flight spans
+	 */
+	public InFlightSpans inFlightSpans() {
+		return this.inFlightSpans;
+	}
+
 	public void clear() {
 		this.spans.clear();
+		this.inFlightSpans.clear();
+		if (this.threadUsageRecorder != null) {
+			this.threadUsageRecorder.clear();
+		}
+	}
+
+	private static MutableSpan withThreadUsage(final MutableSpan span, final ThreadUsage threadUsage) {
+		if (threadUsage == null) {
+			return span;
+		}
+		// The span is shared with the rest of handlers, so only a copy is tagged
+		final MutableSpan copy = new MutableSpan(span);
+		copy.tag(ThreadUsage.CPU_TIME_TAG, Long.toString(threadUsage.getCpuTime().toNanos()));
+		copy.tag(ThreadUsage.ALLOCATED_BYTES_TAG, Long.toString(threadUsage.getAllocatedBytes()));
+		return copy;
 	}
 
 	@Override
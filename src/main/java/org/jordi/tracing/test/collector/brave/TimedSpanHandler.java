@@ -0,0 +1,84 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.collector.brave;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import org.jordi.tracing.test.collector.ComponentTimings;
+
+/**
+ * {@link SpanHandler} which measures the latency and the failures of another one.
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public final class TimedSpanHandler extends SpanHandler {
+
+	private final SpanHandler delegate;
+
+	private final ComponentTimings timings;
+
+	/**
+	 * Constructor.
+	 * @param delegate the measured span handler
+	 * @param timings the timings where the invocations are recorded
+	 */
+	public TimedSpanHandler(final SpanHandler delegate, final ComponentTimings timings) {
+		this.delegate = delegate;
+		this.timings = timings;
+	}
+
+	@Override
+	public boolean begin(final TraceContext context, final MutableSpan span, final TraceContext parent) {
+		final long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			final boolean result = this.delegate.begin(context, span, parent);
+			failed = false;
+			return result;
+		}
+		finally {
+			this.timings.recordStart(System.nanoTime() - start, failed);
+		}
+	}
+
+	@Override
+	public boolean end(final TraceContext context, final MutableSpan span, final Cause cause) {
+		final long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			final boolean result = this.delegate.end(context, span, cause);
+			failed = false;
+			return result;
+		}
+		finally {
+			this.timings.recordEnd(System.nanoTime() - start, failed);
+		}
+	}
+
+	@Override
+	public boolean handlesAbandoned() {
+		return this.delegate.handlesAbandoned();
+	}
+
+	@Override
+	public String toString() {
+		return "TimedSpanHandler{" + this.delegate + "}";
+	}
+
+}
@@ -0,0 +1,323 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.collector.otel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.DelegatingSpanData;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.jordi.tracing.test.collector.InFlightSpans;
+import org.jordi.tracing.test.collector.ThreadUsage;
+import org.jordi.tracing.test.collector.ThreadUsageRecorder;
+
+/**
+ * {@link SpanProcessor} to store the spans in-memory.
+ *
+ * <p>
+ * Unlike a {@code SimpleSpanProcessor} with an {@code InMemorySpanExporter}, the ended
+ * spans are not exported one by one to a synchronized list. Each thread appends the
+ * {@link ReadableSpan}s it ends to its own buffer, without locks, and the
+ * {@code SpanData} is only built when the spans are read.
+ * </p>
+ *
+ * <p>
+ * The {@link ThreadUsage} of the spans can not be added to them when they end, as the
+ * ended spans are read-only, so it is kept apart and added when the {@code SpanData} is
+ * built by {@link #toSpanData(ReadableSpan)}.
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public class CollectingSpanProcessor implements SpanProcessor {
+
+	private final ThreadLocal<SpanBuffer> threadBuffer = new ThreadLocal<>();
+
+	private final List<Consumer<ReadableSpan>> startListeners = new CopyOnWriteArrayList<>();
+
+	private final List<Consumer<ReadableSpan>> endListeners = new CopyOnWriteArrayList<>();
+
+	private final InFlightSpans inFlightSpans = new InFlightSpans();
+
+	private final ThreadUsageRecorder threadUsageRecorder;
+
+	private final Map<SpanContext, ThreadUsage> threadUsages = new ConcurrentHashMap<>();
+
+	private final LongAdder writes = new LongAdder();
+
+	private volatile Generation generation = new Generation();
+
+	/**
+	 * Constructor.
+	 */
+	public CollectingSpanProcessor() {
+		this(false);
+	}
+
+	/**
+	 * Constructor.
+	 * @param recordThreadUsage whether to record the {@link ThreadUsage} of the spans as
+	 * their attributes
+	 */
+	public CollectingSpanProcessor(final boolean recordThreadUsage) {
+		this.threadUsageRecorder = recordThreadUsage ? new ThreadUsageRecorder() : null;
+	}
+
+	@Override
+	public void onStart(final Context parentContext, final ReadWriteSpan span) {
+		final var spanContext = span.getSpanContext();
+		this.inFlightSpans.started(spanContext, spanContext.getTraceId(), spanContext.getSpanId(), span::getName);
+		if (this.threadUsageRecorder != null) {
+			this.threadUsageRecorder.started(spanContext);
+		}
+		this.startListeners.forEach((listener) -> listener.accept(span));
+	}
+
+	@Override
+	public boolean isStartRequired() {
+		return true;
+	}
+
+	@Override
+	public void onEnd(final ReadableSpan span) {
+		this.inFlightSpans.finished(span.getSpanContext());
+		if (this.threadUsageRecorder != null) {
+			final ThreadUsage threadUsage = this.threadUsageRecorder.finished(span.getSpanContext());
+			if (threadUsage != null) {
+				this.threadUsages.put(span.getSpanContext(), threadUsage);
+			}
+		}
+		this.buffer().add(span);
+		// Counted after the span is stored, so a reader which sees the count sees the span
+		this.writes.increment();
+		this.endListeners.forEach((listener) -> listener.accept(span));
+	}
+
+	@Override
+	public boolean isEndRequired() {
+		return true;
+	}
+
+	/**
+	 * Returns the ended spans, grouped by the thread which ended them.
+	 * @return the ended spans
+	 */
+	public List<ReadableSpan> spans() {
+		final List<ReadableSpan> spans = new ArrayList<>();
+		for (final SpanBuffer buffer : this.generation.buffers) {
+			buffer.copyTo(spans);
+		}
+		return spans;
+	}
+
+	/**
+	 * Returns the data of an ended span, with its {@link ThreadUsage} as attributes if it
+	 * was recorded.
+	 * @param span the ended span
+	 * @return the span data
+	 */
+	public SpanData toSpanData(final ReadableSpan span) {
+		final SpanData spanData = span.toSpanData();
+		final ThreadUsage threadUsage = this.threadUsages.get(span.getSpanContext());
+		return (threadUsage != null) ? new ThreadUsageSpanData(spanData, threadUsage) : spanData;
+	}
+
+	/**
+	 * Registers a listener which is called every time a span starts.
+	 * @param listener the listener
+	 */
+	public void onStart(final Consumer<ReadableSpan> listener) {
+		this.startListeners.add(listener);
+	}
+
+	/**
+	 * Registers a listener which is called every time a span ends.
+	 * @param listener the listener
+	 */
+	public void onEnd(final Consumer<ReadableSpan> listener) {
+		this.endListeners.add(listener);
+	}
+
+	/**
+	 * Returns the spans which have started but not ended yet.
+	 * @return the in-flight spans
+	 */
+	public InFlightSpans inFlightSpans() {
+		return this.inFlightSpans;
+	}
+
+	/**
+	 * Discards the ended spans and forgets the in-flight ones.
+	 */
+	public void clear() {
+		// The threads replace the buffers of the previous generation the next time they
+		// end a span, so their spans are released now, as pooled threads can keep their
+		// buffers for long
+		final Generation previous = this.generation;
+		this.generation = new Generation();
+		previous.release();
+		this.writes.increment();
+		this.inFlightSpans.clear();
+		this.threadUsages.clear();
+		if (this.threadUsageRecorder != null) {
+			this.threadUsageRecorder.clear();
+		}
+	}
+
+	/**
+	 * Returns how many times the spans have changed, to know whether they have to be read
+	 * again.
+	 * @return the number of ended spans and clears
+	 */
+	long writeCount() {
+		return this.writes.sum();
+	}
+
+	@Override
+	public CompletableResultCode shutdown() {
+		this.clear();
+		return CompletableResultCode.ofSuccess();
+	}
+
+	@Override
+	public CompletableResultCode forceFlush() {
+		return CompletableResultCode.ofSuccess();
+	}
+
+	private SpanBuffer buffer() {
+		final Generation current = this.generation;
+		SpanBuffer buffer = this.threadBuffer.get();
+		if (buffer == null || buffer.generation != current) {
+			buffer = new SpanBuffer(current);
+			current.buffers.add(buffer);
+			this.threadBuffer.set(buffer);
+		}
+		return buffer;
+	}
+
+	/**
+	 * Span data with the thread usage added to its attributes.
+	 */
+	private static final class ThreadUsageSpanData extends DelegatingSpanData {
+
+		private static final AttributeKey<Long> CPU_TIME = AttributeKey.longKey(ThreadUsage.CPU_TIME_TAG);
+
+		private static final AttributeKey<Long> ALLOCATED_BYTES = AttributeKey.longKey(ThreadUsage.ALLOCATED_BYTES_TAG);
+
+		private final Attributes attributes;
+
+		ThreadUsageSpanData(final SpanData delegate, final ThreadUsage threadUsage) {
+			super(delegate);
+			this.attributes = delegate.getAttributes()
+				.toBuilder()
+				.put(CPU_TIME, threadUsage.getCpuTime().toNanos())
+				.put(ALLOCATED_BYTES, threadUsage.getAllocatedBytes())
+				.build();
+		}
+
+		@Override
+		public Attributes getAttributes() {
+			return this.attributes;
+		}
+
+		@Override
+		public int getTotalAttributeCount() {
+			return super.getTotalAttributeCount() + 2;
+		}
+
+	}
+
+	/**
+	 * Buffers of the spans ended since the last {@link #clear()}.
+	 */
+	private static final class Generation {
+
+		private final Queue<SpanBuffer> buffers = new ConcurrentLinkedQueue<>();
+
+		void release() {
+			this.buffers.forEach(SpanBuffer::release);
+			this.buffers.clear();
+		}
+
+	}
+
+	/**
+	 * Append-only buffer with a single writer thread and any number of readers. The
+	 * writer stores the span before publishing the new size, so a reader which reads the
+	 * size sees all the spans up to it.
+	 */
+	private static final class SpanBuffer {
+
+		private static final int INITIAL_CAPACITY = 16;
+
+		private static final ReadableSpan[] RELEASED = new ReadableSpan[0];
+
+		private final Generation generation;
+
+		private volatile ReadableSpan[] spans = new ReadableSpan[INITIAL_CAPACITY];
+
+		private volatile int size;
+
+		SpanBuffer(final Generation generation) {
+			this.generation = generation;
+		}
+
+		void add(final ReadableSpan span) {
+			final int currentSize = this.size;
+			ReadableSpan[] currentSpans = this.spans;
+			// A released buffer can still get the span its writer was ending at the release
+			if (currentSize >= currentSpans.length) {
+				currentSpans = Arrays.copyOf(currentSpans, Math.max(INITIAL_CAPACITY, currentSize * 2));
+				this.spans = currentSpans;
+			}
+			currentSpans[currentSize] = span;
+			this.size = currentSize + 1;
+		}
+
+		void release() {
+			this.spans = RELEASED;
+			this.size = 0;
+		}
+
+		void copyTo(final List<ReadableSpan> target) {
+			final int currentSize = this.size;
+			final ReadableSpan[] currentSpans = this.spans;
+			for (int i = 0; i < currentSize; i++) {
+				target.add(currentSpans[i]);
+			}
+		}
+
+	}
+
+}
@@ -16,12 +16,25 @@
 
 package org.jordi.tracing.test.collector.otel;
 
+import java.util.Collection;
 import java.util.List;
 
 import io.micrometer.tracing.exporter.FinishedSpan;
 import io.micrometer.tracing.otel.bridge.OtelFinishedSpan;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
 import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import org.jordi.tracing.test.collector.AbstractSpanCollector;
+import org.jordi.tracing.test.collector.InFlightSpans;
 import org.jordi.tracing.test.collector.SpanCollector;
+import org.jordi.tracing.test.collector.UnfinishedSpan;
+import org.jordi.tracing.test.collector.UnfinishedSpansTracking;
 
 /**
  * {@link SpanCollector} which returns the spans exported by
@@ -29,11 +42,20 @@ import org.jordi.tracing.test.collector.SpanCollector;
  *
  * @author Jordi Martinez Vicent
  * @since 1.0.0
+ * @deprecated in favour of {@link OtelSpanProcessorCollector}, which does not export the
+ * spans one by one to a synchronized list. It is no longer registered as a bean, and
+ * neither is its {@code InMemorySpanExporter}.
  */
-public class OtelInMemoryExporterSpanCollector implements SpanCollector {
+@Deprecated(forRemoval = true)
+public class OtelInMemoryExporterSpanCollector extends AbstractSpanCollector {
 
 	private final InMemorySpanExporter inMemorySpanExporter;
 
+	private final InFlightSpans inFlightSpans = new InFlightSpans();
+
+	private final SpanProcessor spanProcessor = new TrackingSpanProcessor(
+			SimpleSpanProcessor.create(new PublishingSpanExporter()));
+
 	/**
 	 * Constructor.
 	 * @param inMemorySpanExporter the InMemorySpanExporter
@@ -42,14 +64,35 @@ public class OtelInMemoryExporterSpanCollector implements SpanCollector {
 		this.inMemorySpanExporter = inMemorySpanExporter;
 	}
 
+	/**
+	 * Returns the {@link SpanProcessor} which has to be registered at the tracer
+	 * provider. It tracks the started spans, exports the finished ones to the
+	 * {@link InMemorySpanExporter} and notifies the span listeners.
+	 * @return the span processor
+	 */
+	public SpanProcessor getSpanProcessor() {
+		return this.spanProcessor;
+	}
+
 	@Override
 	public List<FinishedSpan> getFinishedSpans() {
 		return this.inMemorySpanExporter.getFinishedSpanItems().stream().map(OtelFinishedSpan::fromOtel).toList();
 	}
 
 	@Override
-	public void reset() {
+	public List<UnfinishedSpan> getUnfinishedSpans() {
+		return this.inFlightSpans.getUnfinishedSpans();
+	}
+
+	@Override
+	public void trackUnfinishedSpans(final UnfinishedSpansTracking tracking) {
+		this.inFlightSpans.setTracking(tracking);
+	}
+
+	@Override
+	protected void doReset() {
 		this.inMemorySpanExporter.reset();
+		this.inFlightSpans.clear();
 	}
 
 	@Override
@@ -57,4 +100,74 @@ public class OtelInMemoryExporterSpanCollector implements SpanCollector {
 		this.inMemorySpanExporter.close();
 	}
 
+	private final class TrackingSpanProcessor implements SpanProcessor {
+
+		private final SpanProcessor delegate;
+
+		TrackingSpanProcessor(final SpanProcessor delegate) {
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void onStart(final Context parentContext, final ReadWriteSpan span) {
+			final var spanContext = span.getSpanContext();
+			OtelInMemoryExporterSpanCollector.this.inFlightSpans.started(spanContext, spanContext.getTraceId(),
+					spanContext.getSpanId(), span::getName);
+			this.delegate.onStart(parentContext, span);
+		}
+
+		@Override
+		public boolean isStartRequired() {
+			return true;
+		}
+
+		@Override
+		public void onEnd(final ReadableSpan span) {
+			OtelInMemoryExporterSpanCollector.this.inFlightSpans.finished(span.getSpanContext());
+			this.delegate.onEnd(span);
+		}
+
+		@Override
+		public boolean isEndRequired() {
+			return true;
+		}
+
+		@Override
+		public CompletableResultCode shutdown() {
+			return this.delegate.shutdown();
+		}
+
+		@Override
+		public CompletableResultCode forceFlush() {
+			return this.delegate.forceFlush();
+		}
+
+	}
+
+	private final class PublishingSpanExporter implements SpanExporter {
+
+		@Override
+		public CompletableResultCode export(final Collection<SpanData> spans) {
+			final var collector = OtelInMemoryExporterSpanCollector.this;
+			final CompletableResultCode result = collector.inMemorySpanExporter.export(spans);
+
+			if (collector.hasSpanListeners()) {
+				spans.forEach((span) -> collector.publish(OtelFinishedSpan.fromOtel(span)));
+			}
+
+			return result;
+		}
+
+		@Override
+		public CompletableResultCode flush() {
+			return OtelInMemoryExporterSpanCollector.this.inMemorySpanExporter.flush();
+		}
+
+		@Override
+		public CompletableResultCode shutdown() {
+			return OtelInMemoryExporterSpanCollector.this.inMemorySpanExporter.shutdown();
+		}
+
+	}
+
 }
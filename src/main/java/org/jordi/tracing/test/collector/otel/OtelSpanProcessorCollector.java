@@ -0,0 +1,108 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.collector.otel;
+
+import java.util.Comparator;
+import java.util.List;
+
+import io.micrometer.tracing.exporter.FinishedSpan;
+import io.micrometer.tracing.otel.bridge.OtelFinishedSpan;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.jordi.tracing.test.collector.AbstractSpanCollector;
+import org.jordi.tracing.test.collector.SpanCollector;
+import org.jordi.tracing.test.collector.UnfinishedSpan;
+import org.jordi.tracing.test.collector.UnfinishedSpansTracking;
+
+/**
+ * {@link SpanCollector} which returns the spans collected by a
+ * {@link CollectingSpanProcessor}.
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public class OtelSpanProcessorCollector extends AbstractSpanCollector {
+
+	private final CollectingSpanProcessor spanProcessor;
+
+	private volatile FinishedSpans finishedSpans = new FinishedSpans(-1, List.of());
+
+	/**
+	 * Constructor.
+	 * @param spanProcessor the span processor
+	 */
+	public OtelSpanProcessorCollector(final CollectingSpanProcessor spanProcessor) {
+		this.spanProcessor = spanProcessor;
+		this.spanProcessor.onStart((span) -> {
+			if (this.hasSpanListeners()) {
+				this.publishStart(span.getSpanContext().getTraceId(), span.getSpanContext().getSpanId());
+			}
+		});
+		this.spanProcessor.onEnd((span) -> {
+			if (this.hasSpanListeners()) {
+				this.publish(OtelFinishedSpan.fromOtel(this.spanProcessor.toSpanData(span)));
+			}
+		});
+	}
+
+	@Override
+	public List<FinishedSpan> getFinishedSpans() {
+		// The count is read before the spans, so a span ended meanwhile invalidates them
+		final long writeCount = this.spanProcessor.writeCount();
+		final FinishedSpans cached = this.finishedSpans;
+		if (cached.writeCount() == writeCount) {
+			return cached.spans();
+		}
+
+		// The spans are stored by thread, so they are sorted to keep the end order
+		final List<FinishedSpan> spans = this.spanProcessor.spans()
+			.stream()
+			.map(this.spanProcessor::toSpanData)
+			.sorted(Comparator.comparingLong(SpanData::getEndEpochNanos))
+			.map(OtelFinishedSpan::fromOtel)
+			.toList();
+		this.finishedSpans = new FinishedSpans(writeCount, spans);
+		return spans;
+	}
+
+	@Override
+	public List<UnfinishedSpan> getUnfinishedSpans() {
+		return this.spanProcessor.inFlightSpans().getUnfinishedSpans();
+	}
+
+	@Override
+	public void trackUnfinishedSpans(final UnfinishedSpansTracking tracking) {
+		this.spanProcessor.inFlightSpans().setTracking(tracking);
+	}
+
+	@Override
+	protected void doReset() {
+		this.spanProcessor.clear();
+	}
+
+	@Override
+	public void close() {
+		this.spanProcessor.clear();
+	}
+
+	/**
+	 * Finished spans converted at the given write count of the span processor.
+	 */
+	private record FinishedSpans(long writeCount, List<FinishedSpan> spans) {
+
+	}
+
+}
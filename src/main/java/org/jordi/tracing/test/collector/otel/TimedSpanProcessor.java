@@ -0,0 +1,99 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.collector.otel;
+
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
+import org.jordi.tracing.test.collector.ComponentTimings;
+
+/**
+ * {@link SpanProcessor} which measures the latency and the failures of another one.
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public final class TimedSpanProcessor implements SpanProcessor {
+
+	private final SpanProcessor delegate;
+
+	private final ComponentTimings timings;
+
+	/**
+	 * Constructor.
+	 * @param delegate the measured span processor
+	 * @param timings the timings where the invocations are recorded
+	 */
+	public TimedSpanProcessor(final SpanProcessor delegate, final ComponentTimings timings) {
+		this.delegate = delegate;
+		this.timings = timings;
+	}
+
+	@Override
+	public void onStart(final Context parentContext, final ReadWriteSpan span) {
+		final long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			this.delegate.onStart(parentContext, span);
+			failed = false;
+		}
+		finally {
+			this.timings.recordStart(System.nanoTime() - start, failed);
+		}
+	}
+
+	@Override
+	public boolean isStartRequired() {
+		return this.delegate.isStartRequired();
+	}
+
+	@Override
+	public void onEnd(final ReadableSpan span) {
+		final long start = System.nanoTime();
+		boolean failed = true;
+		try {
+			this.delegate.onEnd(span);
+			failed = false;
+		}
+		finally {
+			this.timings.recordEnd(System.nanoTime() - start, failed);
+		}
+	}
+
+	@Override
+	public boolean isEndRequired() {
+		return this.delegate.isEndRequired();
+	}
+
+	@Override
+	public CompletableResultCode shutdown() {
+		return this.delegate.shutdown();
+	}
+
+	@Override
+	public CompletableResultCode forceFlush() {
+		return this.delegate.forceFlush();
+	}
+
+	@Override
+	public String toString() {
+		return "TimedSpanProcessor{" + this.delegate + "}";
+	}
+
+}
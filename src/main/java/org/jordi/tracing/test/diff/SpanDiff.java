@@ -0,0 +1,304 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.diff;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import io.micrometer.tracing.exporter.FinishedSpan;
+import org.jordi.tracing.test.collector.FinishedSpans;
+import org.jordi.tracing.test.collector.SpanCollector;
+
+/**
+ * Differences between the spans of two captures, typically produced by two
+ * implementations or two versions of the same code.
+ *
+ * <p>
+ * The spans are aligned structurally by their name path from the root span (for
+ * instance {@code gateway > orders > db}). Spans with the same path are aligned in start
+ * order. The diff reports the spans only present at one of the captures, the tags which
+ * changed between aligned spans and the duration delta of every path present at both
+ * captures. It runs in {@code O(n log n)} time, dominated by the sort of the spans of
+ * each path, so it scales to large captures. The paths are compared by id and only
+ * rendered as strings when they are read, so deep traces do not build a string per
+ * path.
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public final class SpanDiff {
+
+	private final List<PathSpan> addedSpans;
+
+	private final List<PathSpan> removedSpans;
+
+	private final List<TagChange> tagChanges;
+
+	private final List<DurationDelta> durationDeltas;
+
+	private SpanDiff(final List<PathSpan> addedSpans, final List<PathSpan> removedSpans,
+			final List<TagChange> tagChanges, final List<DurationDelta> durationDeltas) {
+		this.addedSpans = addedSpans;
+		this.removedSpans = removedSpans;
+		this.tagChanges = tagChanges;
+		this.durationDeltas = durationDeltas;
+	}
+
+	/**
+	 * Computes the differences between the spans currently collected by two collectors.
+	 * @param baseline the collector of the baseline capture
+	 * @param candidate the collector of the candidate capture
+	 * @return the differences
+	 */
+	public static SpanDiff between(final SpanCollector baseline, final SpanCollector candidate) {
+		return between(baseline.getFinishedSpans(), candidate.getFinishedSpans());
+	}
+
+	/**
+	 * Computes the differences between two captures.
+	 * @param baseline the spans of the baseline capture
+	 * @param candidate the spans of the candidate capture
+	 * @return the differences
+	 */
+	public static SpanDiff between(final List<FinishedSpan> baseline, final List<FinishedSpan> candidate) {
+		final SpanPaths spanPaths = new SpanPaths();
+		final Map<Integer, List<FinishedSpan>> baselineByPath = groupByPath(baseline, spanPaths.resolve(baseline));
+		final Map<Integer, List<FinishedSpan>> candidateByPath = groupByPath(candidate,
+				spanPaths.resolve(candidate));
+
+		final List<PathSpan> addedSpans = new ArrayList<>();
+		final List<PathSpan> removedSpans = new ArrayList<>();
+		final List<TagChange> tagChanges = new ArrayList<>();
+		final List<DurationDelta> durationDeltas = new ArrayList<>();
+
+		// The paths are sorted by their rank, so no path string is built unless reported
+		final int[] ranks = spanPaths.ranks();
+		final Set<Integer> pathIds = new HashSet<>(baselineByPath.keySet());
+		pathIds.addAll(candidateByPath.keySet());
+		final int[] sortedPaths = pathIds.stream()
+			.sorted(Comparator.comparingInt((pathId) -> ranks[pathId]))
+			.mapToInt(Integer::intValue)
+			.toArray();
+
+		for (final int pathId : sortedPaths) {
+			final SpanPath path = spanPaths.get(pathId);
+			final List<FinishedSpan> baselineSpans = baselineByPath.getOrDefault(pathId, List.of());
+			final List<FinishedSpan> candidateSpans = candidateByPath.getOrDefault(pathId, List.of());
+
+			final int aligned = Math.min(baselineSpans.size(), candidateSpans.size());
+			for (int i = 0; i < aligned; i++) {
+				addTagChanges(path, baselineSpans.get(i), candidateSpans.get(i), tagChanges);
+			}
+			for (int i = aligned; i < candidateSpans.size(); i++) {
+				addedSpans.add(new PathSpan(path, candidateSpans.get(i)));
+			}
+			for (int i = aligned; i < baselineSpans.size(); i++) {
+				removedSpans.add(new PathSpan(path, baselineSpans.get(i)));
+			}
+
+			if (!baselineSpans.isEmpty() && !candidateSpans.isEmpty()) {
+				durationDeltas.add(new DurationDelta(path, baselineSpans.size(), totalDuration(baselineSpans),
+						candidateSpans.size(), totalDuration(candidateSpans)));
+			}
+		}
+
+		return new SpanDiff(List.copyOf(addedSpans), List.copyOf(removedSpans), List.copyOf(tagChanges),
+				List.copyOf(durationDeltas));
+	}
+
+	/**
+	 * Returns the spans only present at the candidate capture.
+	 * @return the added spans
+	 */
+	public List<PathSpan> getAddedSpans() {
+		return this.addedSpans;
+	}
+
+	/**
+	 * Returns the spans only present at the baseline capture.
+	 * @return the removed spans
+	 */
+	public List<PathSpan> getRemovedSpans() {
+		return this.removedSpans;
+	}
+
+	/**
+	 * Returns the tags which are different between aligned spans.
+	 * @return the tag changes
+	 */
+	public List<TagChange> getTagChanges() {
+		return this.tagChanges;
+	}
+
+	/**
+	 * Returns the duration delta of every path present at both captures.
+	 * @return the duration deltas, sorted by path: the parents before their children and
+	 * the siblings by name
+	 */
+	public List<DurationDelta> getDurationDeltas() {
+		return this.durationDeltas;
+	}
+
+	/**
+	 * Returns whether both captures have the same spans with the same tags, ignoring the
+	 * durations.
+	 * @return {@code true} if there is no added or removed span, nor tag change
+	 */
+	public boolean isStructurallyEqual() {
+		return this.addedSpans.isEmpty() && this.removedSpans.isEmpty() && this.tagChanges.isEmpty();
+	}
+
+	/**
+	 * Returns a human readable report of the differences: added spans ({@code +}),
+	 * removed spans ({@code -}), tag changes ({@code ~}) and mean duration deltas
+	 * ({@code *}), the biggest first.
+	 * @return the report
+	 */
+	public String report() {
+		final String lineSeparator = System.lineSeparator();
+		final StringBuilder report = new StringBuilder();
+
+		this.addedSpans.forEach((added) -> report.append("+ ").append(added.path()).append(lineSeparator));
+		this.removedSpans.forEach((removed) -> report.append("- ").append(removed.path()).append(lineSeparator));
+		this.tagChanges.forEach((change) -> report.append("~ ")
+			.append(change.path())
+			.append(" [")
+			.append(change.key())
+			.append("] ")
+			.append(change.baselineValue())
+			.append(" -> ")
+			.append(change.candidateValue())
+			.append(lineSeparator));
+		this.durationDeltas.stream()
+			.sorted(Comparator.comparing((delta) -> delta.meanDelta().abs(), Comparator.reverseOrder()))
+			.forEach((delta) -> report.append("* ")
+				.append(delta.path())
+				.append(" mean ")
+				.append(delta.meanDelta())
+				.append(lineSeparator));
+
+		return report.toString();
+	}
+
+	@Override
+	public String toString() {
+		return this.report();
+	}
+
+	private static Map<Integer, List<FinishedSpan>> groupByPath(final List<FinishedSpan> spans,
+			final int[] spanPaths) {
+		final Map<Integer, List<FinishedSpan>> spansByPath = new HashMap<>();
+		for (int i = 0; i < spans.size(); i++) {
+			spansByPath.computeIfAbsent(spanPaths[i], (pathId) -> new ArrayList<>()).add(spans.get(i));
+		}
+		final Comparator<FinishedSpan> startOrder = Comparator.comparing(FinishedSpan::getStartTimestamp);
+		spansByPath.values().forEach((pathSpans) -> pathSpans.sort(startOrder));
+		return spansByPath;
+	}
+
+	private static void addTagChanges(final SpanPath path, final FinishedSpan baseline, final FinishedSpan candidate,
+			final List<TagChange> tagChanges) {
+		// The thread usage changes from run to run, so it is not reported
+		final Map<String, String> baselineTags = FinishedSpans.tags(baseline);
+		final Map<String, String> candidateTags = FinishedSpans.tags(candidate);
+
+		baselineTags.forEach((key, baselineValue) -> {
+			final String candidateValue = candidateTags.get(key);
+			if (!Objects.equals(baselineValue, candidateValue)) {
+				tagChanges.add(new TagChange(path, key, baselineValue, candidateValue));
+			}
+		});
+		candidateTags.forEach((key, candidateValue) -> {
+			if (!baselineTags.containsKey(key)) {
+				tagChanges.add(new TagChange(path, key, null, candidateValue));
+			}
+		});
+	}
+
+	private static Duration totalDuration(final List<FinishedSpan> spans) {
+		Duration total = Duration.ZERO;
+		for (final FinishedSpan span : spans) {
+			total = total.plus(FinishedSpans.duration(span));
+		}
+		return total;
+	}
+
+	/**
+	 * A span and its name path.
+	 *
+	 * @param path the name path from the root span
+	 * @param span the span
+	 */
+	public record PathSpan(SpanPath path, FinishedSpan span) {
+
+	}
+
+	/**
+	 * A tag which is different between two aligned spans.
+	 *
+	 * @param path the name path of the spans
+	 * @param key the tag key
+	 * @param baselineValue the value at the baseline, {@code null} if the tag was added
+	 * @param candidateValue the value at the candidate, {@code null} if the tag was
+	 * removed
+	 */
+	public record TagChange(SpanPath path, String key, String baselineValue, String candidateValue) {
+
+	}
+
+	/**
+	 * Duration delta of the spans of a path.
+	 *
+	 * @param path the name path of the spans
+	 * @param baselineCount number of spans at the baseline
+	 * @param baselineTotal total duration of the spans at the baseline
+	 * @param candidateCount number of spans at the candidate
+	 * @param candidateTotal total duration of the spans at the candidate
+	 */
+	public record DurationDelta(SpanPath path, int baselineCount, Duration baselineTotal, int candidateCount,
+			Duration candidateTotal) {
+
+		/**
+		 * Returns the difference between the mean duration of the candidate spans and
+		 * the baseline spans. Positive if the candidate is slower.
+		 * @return the mean duration delta
+		 */
+		public Duration meanDelta() {
+			return this.candidateTotal.dividedBy(this.candidateCount)
+				.minus(this.baselineTotal.dividedBy(this.baselineCount));
+		}
+
+		/**
+		 * Returns the difference between the total duration of the candidate spans and
+		 * the baseline spans. Positive if the candidate is slower.
+		 * @return the total duration delta
+		 */
+		public Duration totalDelta() {
+			return this.candidateTotal.minus(this.baselineTotal);
+		}
+
+	}
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.diff;
+
+import java.util.List;
+
+/**
+ * Name path of a span from its root span, for instance {@code gateway > orders > db}.
+ *
+ * <p>
+ * The path string is built the first time it is rendered, so the diff of deep traces
+ * does not build the string of every path. The paths are compared by their interned id.
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public final class SpanPath {
+
+	private final SpanPaths spanPaths;
+
+	private final int pathId;
+
+	private String rendered;
+
+	SpanPath(final SpanPaths spanPaths, final int pathId) {
+		this.spanPaths = spanPaths;
+		this.pathId = pathId;
+	}
+
+	/**
+	 * Returns the names of the spans of the path.
+	 * @return the names from the root span
+	 */
+	public List<String> getNames() {
+		return this.spanPaths.names(this.pathId);
+	}
+
+	/**
+	 * Compares the interned ids of the paths, without rendering them. The paths of
+	 * different {@code SpanDiff}s are never equal, as their ids are not shared.
+	 * @param obj the object to compare with
+	 * @return whether it is the same path of the same diff
+	 */
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		return (obj instanceof SpanPath other) && this.spanPaths == other.spanPaths && this.pathId == other.pathId;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * System.identityHashCode(this.spanPaths) + this.pathId;
+	}
+
+	/**
+	 * Returns the human readable path.
+	 * @return the names from the root span, separated by {@code " > "}
+	 */
+	@Override
+	public String toString() {
+		if (this.rendered == null) {
+			this.rendered = String.join(SpanPaths.SEPARATOR, this.getNames());
+		}
+		return this.rendered;
+	}
+
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.diff;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import io.micrometer.tracing.exporter.FinishedSpan;
+import org.jordi.tracing.test.collector.FinishedSpans;
+
+/**
+ * Assigns to every span the path of names from its root span, shared by several
+ * captures so the same path gets the same id at all of them.
+ *
+ * <p>
+ * Paths are interned as {@code int} ids, so resolving the path of a span is a constant
+ * time operation once its parent has been resolved. The paths are compared and ordered by
+ * their ids, and the path strings are only built for the {@link SpanPath}s which are
+ * rendered.
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+final class SpanPaths {
+
+	static final String SEPARATOR = " > ";
+
+	private static final int ROOT = -1;
+
+	private static final int UNRESOLVED = -2;
+
+	private static final int VISITING = -3;
+
+	private final Map<String, Integer> nameIds = new HashMap<>();
+
+	private final List<String> names = new ArrayList<>();
+
+	private final Map<Long, Integer> pathIds = new HashMap<>();
+
+	private final List<int[]> paths = new ArrayList<>();
+
+	/**
+	 * Resolves the path ids of the given spans.
+	 * @param spans the spans of a capture
+	 * @return the path id of every span, in the same order as the spans
+	 */
+	int[] resolve(final List<FinishedSpan> spans) {
+		final Map<String, Integer> positions = new HashMap<>(spans.size() * 2);
+		for (int i = 0; i < spans.size(); i++) {
+			final FinishedSpan span = spans.get(i);
+			positions.put(key(span.getTraceId(), span.getSpanId()), i);
+		}
+
+		final int[] spanPaths = new int[spans.size()];
+		Arrays.fill(spanPaths, UNRESOLVED);
+		final int[] pending = new int[spans.size()];
+
+		for (int i = 0; i < spans.size(); i++) {
+			// Walk up until a resolved ancestor (or the root) is found, and then resolve
+			// the pending spans top-down. It avoids the recursion on deep traces.
+			int depth = 0;
+			int current = i;
+			while (current >= 0 && spanPaths[current] == UNRESOLVED) {
+				spanPaths[current] = VISITING;
+				pending[depth++] = current;
+				final Integer parent = this.parentPosition(spans.get(current), positions);
+				current = (parent != null) ? parent : -1;
+			}
+
+			// A span being visited means a cycle in the parent ids: handle it as a root
+			int parentPath = (current >= 0 && spanPaths[current] != VISITING) ? spanPaths[current] : ROOT;
+			while (depth > 0) {
+				final int position = pending[--depth];
+				parentPath = this.pathId(parentPath, spans.get(position).getName());
+				spanPaths[position] = parentPath;
+			}
+		}
+
+		return spanPaths;
+	}
+
+	/**
+	 * Returns the {@link SpanPath} of a path id.
+	 * @param pathId the path id
+	 * @return the span path
+	 */
+	SpanPath get(final int pathId) {
+		return new SpanPath(this, pathId);
+	}
+
+	/**
+	 * Returns the names of a path, walking up the parents in a loop so deep paths do not
+	 * recurse.
+	 * @param pathId the path id
+	 * @return the names from the root span
+	 */
+	List<String> names(final int pathId) {
+		final Deque<String> pathNames = new ArrayDeque<>();
+		for (int current = pathId; current != ROOT; current = this.paths.get(current)[0]) {
+			pathNames.addFirst(this.names.get(this.paths.get(current)[1]));
+		}
+		return List.copyOf(pathNames);
+	}
+
+	/**
+	 * Returns the rank of every path in depth-first order, the parents before their
+	 * children and the siblings sorted by name. It sorts the paths without rendering
+	 * them.
+	 * @return the rank of every path id
+	 */
+	int[] ranks() {
+		final int pathCount = this.paths.size();
+		final List<List<Integer>> children = new ArrayList<>(pathCount + 1);
+		for (int i = 0; i <= pathCount; i++) {
+			children.add(new ArrayList<>());
+		}
+		for (int pathId = 0; pathId < pathCount; pathId++) {
+			final int parent = this.paths.get(pathId)[0];
+			children.get((parent == ROOT) ? pathCount : parent).add(pathId);
+		}
+
+		final Comparator<Integer> byName = Comparator.comparing((pathId) -> this.names.get(this.paths.get(pathId)[1]));
+		final int[] ranks = new int[pathCount];
+		final Deque<Integer> stack = new ArrayDeque<>();
+		pushChildren(stack, children.get(pathCount), byName);
+
+		int rank = 0;
+		while (!stack.isEmpty()) {
+			final int pathId = stack.pop();
+			ranks[pathId] = rank++;
+			pushChildren(stack, children.get(pathId), byName);
+		}
+		return ranks;
+	}
+
+	private static void pushChildren(final Deque<Integer> stack, final List<Integer> children,
+			final Comparator<Integer> byName) {
+		// Pushed in reverse order, so they are popped sorted by name
+		children.sort(byName.reversed());
+		children.forEach(stack::push);
+	}
+
+	private Integer parentPosition(final FinishedSpan span, final Map<String, Integer> positions) {
+		final String parentId = FinishedSpans.parentId(span);
+		return (parentId != null) ? positions.get(key(span.getTraceId(), parentId)) : null;
+	}
+
+	private int pathId(final int parentPath, final String name) {
+		final int nameId = this.nameIds.computeIfAbsent(String.valueOf(name), (newName) -> {
+			this.names.add(newName);
+			return this.names.size() - 1;
+		});
+		final long key = ((long) parentPath << 32) | (nameId & 0xFFFFFFFFL);
+		return this.pathIds.computeIfAbsent(key, (newKey) -> {
+			this.paths.add(new int[] { parentPath, nameId });
+			return this.paths.size() - 1;
+		});
+	}
+
+	private static String key(final String traceId, final String spanId) {
+		return traceId + '/' + spanId;
+	}
+
+}
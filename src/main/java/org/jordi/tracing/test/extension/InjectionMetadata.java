@@ -0,0 +1,176 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.extension;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.apache.commons.lang3.exception.ExceptionUtils;
+import org.apache.commons.lang3.reflect.FieldUtils;
+import org.jordi.tracing.test.clock.VirtualClock;
+
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Fields of a test class which have to be injected by the {@link TracingExtension}.
+ *
+ * <p>
+ * The metadata is resolved once per test class, so the reflection over the class
+ * hierarchy is not repeated for every test instance.
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+final class InjectionMetadata {
+
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	private final List<InjectionPoint> spansInjectionPoints;
+
+	private final List<InjectionPoint> tracerInjectionPoints;
+
+	private final List<InjectionPoint> propagatorInjectionPoints;
+
+	private final List<InjectionPoint> clockInjectionPoints;
+
+	private InjectionMetadata(final List<InjectionPoint> spansInjectionPoints,
+			final List<InjectionPoint> tracerInjectionPoints, final List<InjectionPoint> propagatorInjectionPoints,
+			final List<InjectionPoint> clockInjectionPoints) {
+		this.spansInjectionPoints = spansInjectionPoints;
+		this.tracerInjectionPoints = tracerInjectionPoints;
+		this.propagatorInjectionPoints = propagatorInjectionPoints;
+		this.clockInjectionPoints = clockInjectionPoints;
+	}
+
+	/**
+	 * Resolves the injection metadata of the given test class.
+	 * @param testClass the test class
+	 * @return the injection metadata
+	 */
+	static InjectionMetadata forClass(final Class<?> testClass) {
+		final List<InjectionPoint> spansInjectionPoints = new ArrayList<>();
+		final List<InjectionPoint> tracerInjectionPoints = new ArrayList<>();
+		final List<InjectionPoint> propagatorInjectionPoints = new ArrayList<>();
+		final List<InjectionPoint> clockInjectionPoints = new ArrayList<>();
+
+		for (final Field field : FieldUtils.getAllFields(testClass)) {
+			if (field.isAnnotationPresent(Spans.class)) {
+				spansInjectionPoints.add(InjectionPoint.of(field));
+			}
+			if (isInjectable(field, TestTracer.class, Tracer.class)) {
+				tracerInjectionPoints.add(InjectionPoint.of(field));
+			}
+			if (isInjectable(field, TestPropagator.class, Propagator.class)) {
+				propagatorInjectionPoints.add(InjectionPoint.of(field));
+			}
+			if (isInjectable(field, TestClock.class, VirtualClock.class)) {
+				clockInjectionPoints.add(InjectionPoint.of(field));
+			}
+		}
+
+		return new InjectionMetadata(List.copyOf(spansInjectionPoints), List.copyOf(tracerInjectionPoints),
+				List.copyOf(propagatorInjectionPoints), List.copyOf(clockInjectionPoints));
+	}
+
+	/**
+	 * Injects the given span collector, tracer, propagator and clock into the test
+	 * instance.
+	 * @param testInstance the test instance
+	 * @param spanCollector the span collector to inject at {@link Spans} fields
+	 * @param tracer supplier of the tracer to inject at {@link TestTracer} fields. It is
+	 * only invoked if the test has any field to inject it.
+	 * @param propagator supplier of the propagator to inject at {@link TestPropagator}
+	 * fields. It is only invoked if the test has any field to inject it.
+	 * @param clock supplier of the virtual clock to inject at {@link TestClock} fields. It
+	 * is only invoked if the test has any field to inject it.
+	 */
+	void inject(final Object testInstance, final Object spanCollector, final Supplier<? extends Tracer> tracer,
+			final Supplier<? extends Propagator> propagator, final Supplier<VirtualClock> clock) {
+
+		for (final InjectionPoint injectionPoint : this.spansInjectionPoints) {
+			if (injectionPoint.type.isInstance(spanCollector)) {
+				injectionPoint.inject(testInstance, spanCollector);
+			}
+		}
+
+		for (final InjectionPoint injectionPoint : this.tracerInjectionPoints) {
+			injectionPoint.inject(testInstance, tracer.get());
+		}
+
+		for (final InjectionPoint injectionPoint : this.propagatorInjectionPoints) {
+			injectionPoint.inject(testInstance, propagator.get());
+		}
+
+		for (final InjectionPoint injectionPoint : this.clockInjectionPoints) {
+			injectionPoint.inject(testInstance, clock.get());
+		}
+	}
+
+	private static boolean isInjectable(final Field field, final Class<? extends Annotation> annotation,
+			final Class<?> toInjectType) {
+		return field.isAnnotationPresent(annotation) && field.getType().isAssignableFrom(toInjectType);
+	}
+
+	private static final class InjectionPoint {
+
+		private final Class<?> type;
+
+		private final MethodHandle setter;
+
+		private InjectionPoint(final Class<?> type, final MethodHandle setter) {
+			this.type = type;
+			this.setter = setter;
+		}
+
+		static InjectionPoint of(final Field field) {
+			try {
+				// final fields are only writable through an accessible field
+				ReflectionUtils.makeAccessible(field);
+				final var lookup = MethodHandles.privateLookupIn(field.getDeclaringClass(), MethodHandles.lookup());
+				MethodHandle setter = lookup.unreflectSetter(field);
+				if (Modifier.isStatic(field.getModifiers())) {
+					setter = MethodHandles.dropArguments(setter, 0, Object.class);
+				}
+				return new InjectionPoint(field.getType(), setter.asType(SETTER_TYPE));
+			}
+			catch (final IllegalAccessException ex) {
+				throw new IllegalStateException("Could not access field '" + field + "' to inject it", ex);
+			}
+		}
+
+		void inject(final Object testInstance, final Object value) {
+			try {
+				this.setter.invokeExact(testInstance, value);
+			}
+			catch (final Throwable ex) {
+				ExceptionUtils.rethrow(ex);
+			}
+		}
+
+	}
+
+}
@@ -16,116 +16,287 @@
 
 package org.jordi.tracing.test.extension;
 
-import java.lang.annotation.Annotation;
-import java.lang.reflect.Field;
-import java.util.function.Supplier;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
 
-import io.micrometer.tracing.BaggageManager;
 import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.otel.bridge.OtelBaggageManager;
 import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelPropagator;
 import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.micrometer.tracing.propagation.Propagator;
 import io.opentelemetry.api.GlobalOpenTelemetry;
-import org.apache.commons.lang3.reflect.FieldUtils;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.jordi.tracing.test.StandaloneTracingTest;
+import org.jordi.tracing.test.TracingTest;
+import org.jordi.tracing.test.UnfinishedSpansPolicy;
+import org.jordi.tracing.test.clock.VirtualClock;
 import org.jordi.tracing.test.collector.SpanCollector;
+import org.jordi.tracing.test.collector.UnfinishedSpan;
+import org.jordi.tracing.test.collector.UnfinishedSpansTracking;
+import org.jordi.tracing.test.jfr.JfrRecording;
+import org.jordi.tracing.test.jfr.SpanRecording;
+import org.jordi.tracing.test.report.HotSpotReportListener;
+import org.jordi.tracing.test.report.SpanHotSpots;
+import org.jordi.tracing.test.standalone.StandaloneTracing;
 import org.junit.jupiter.api.extension.AfterAllCallback;
 import org.junit.jupiter.api.extension.AfterEachCallback;
 import org.junit.jupiter.api.extension.BeforeAllCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
 import org.junit.jupiter.api.extension.ExtensionContext;
 import org.junit.jupiter.api.extension.ParameterContext;
 import org.junit.jupiter.api.extension.ParameterResolutionException;
 import org.junit.jupiter.api.extension.ParameterResolver;
 import org.junit.jupiter.api.extension.TestInstancePostProcessor;
+import org.junit.platform.commons.support.AnnotationSupport;
 
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.ApplicationContext;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
-import org.springframework.util.ReflectionUtils;
 import org.springframework.util.function.SingletonSupplier;
 
 /**
  * Extension to testing tracing components.
  *
  * <p>
- * It is intended to be use with TracingTest
+ * It is intended to be use with TracingTest or StandaloneTracingTest
  * </p>
  *
  * @author Jordi Martinez Vicent
  * @since 1.0.0
  */
-public class TracingExtension implements AfterEachCallback, BeforeAllCallback, AfterAllCallback, ParameterResolver,
-		TestInstancePostProcessor {
+public class TracingExtension implements BeforeEachCallback, AfterEachCallback, BeforeAllCallback, AfterAllCallback,
+		ParameterResolver, TestInstancePostProcessor {
+
+	private static final Log logger = LogFactory.getLog(TracingExtension.class);
+
+	private static final int REPORTED_STACK_FRAMES = 5;
+
+	private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace
+		.create(TracingExtension.class);
 
 	private SpanCollector spanCollector;
 
 	private ApplicationContext appContext;
 
+	private StandaloneTracing standaloneTracing;
+
+	private UnfinishedSpansPolicy unfinishedSpansPolicy;
+
+	private VirtualClock virtualClock;
+
 	private SingletonSupplier<Tracer> tracerSupplier = new SingletonSupplier<>(this::getTracer, null);
 
+	private SingletonSupplier<Propagator> propagatorSupplier = new SingletonSupplier<>(this::getPropagator, null);
+
+	private SingletonSupplier<VirtualClock> clockSupplier = new SingletonSupplier<>(this::getVirtualClock, null);
+
 	@Override
 	public void beforeAll(final ExtensionContext context) throws Exception {
 		GlobalOpenTelemetry.resetForTest();
 
-		this.appContext = SpringExtension.getApplicationContext(context);
-		this.spanCollector = this.appContext.getBean(SpanCollector.class);
+		final var standaloneTracingTest = AnnotationSupport.findAnnotation(context.getRequiredTestClass(),
+				StandaloneTracingTest.class);
+
+		this.unfinishedSpansPolicy = standaloneTracingTest.map(StandaloneTracingTest::unfinishedSpans)
+			.or(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), TracingTest.class)
+				.map(TracingTest::unfinishedSpans))
+			.orElse(UnfinishedSpansPolicy.WARN);
+		final boolean unfinishedSpansStackTrace = standaloneTracingTest
+			.map(StandaloneTracingTest::unfinishedSpansStackTrace)
+			.or(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), TracingTest.class)
+				.map(TracingTest::unfinishedSpansStackTrace))
+			.orElse(false);
+
+		if (standaloneTracingTest.isPresent()) {
+			final StandaloneTracingTest annotation = standaloneTracingTest.get();
+			this.virtualClock = annotation.virtualClock() ? new VirtualClock() : null;
+			this.standaloneTracing = StandaloneTracing.builder(annotation.provider())
+				.remoteBaggageFields(List.of(annotation.baggage()))
+				.virtualClock(this.virtualClock)
+				.recordThreadUsage(annotation.threadUsage())
+				.build();
+			this.spanCollector = this.standaloneTracing.getSpanCollector();
+		}
+		else {
+			this.appContext = SpringExtension.getApplicationContext(context);
+			this.spanCollector = this.appContext.getBean(SpanCollector.class);
+		}
+
+		this.spanCollector.trackUnfinishedSpans(this.unfinishedSpansTracking(unfinishedSpansStackTrace));
 
 	}
 
 	@Override
-	public void afterEach(final ExtensionContext context) throws Exception {
-		this.spanCollector.reset();
+	public void beforeEach(final ExtensionContext context) throws Exception {
+		findJfrRecording(context).ifPresent((annotation) -> context.getStore(NAMESPACE)
+			.put(SpanRecording.class, SpanRecording.start(this.spanCollector, annotation.settings())));
+	}
 
+	@Override
+	public void afterEach(final ExtensionContext context) throws Exception {
+		try {
+			this.dumpJfrRecording(context);
+			if (isHotSpotReportEnabled(context)) {
+				SpanHotSpots.suite().record(testName(context), this.spanCollector.getFinishedSpans());
+			}
+			this.checkUnfinishedSpans(context);
+		}
+		finally {
+			this.spanCollector.reset();
+		}
 	}
 
 	@Override
 	public void afterAll(final ExtensionContext context) throws Exception {
+		if (this.standaloneTracing != null) {
+			this.standaloneTracing.close();
+			return;
+		}
+
 		this.spanCollector.close();
 	}
 
 	@Override
 	public boolean supportsParameter(final ParameterContext parameterContext, final ExtensionContext extensionContext)
 			throws ParameterResolutionException {
-		return parameterContext.isAnnotated(Spans.class);
+		final Class<?> parameterType = parameterContext.getParameter().getType();
+		return parameterContext.isAnnotated(Spans.class)
+				|| (parameterContext.isAnnotated(TestTracer.class) && parameterType.isAssignableFrom(Tracer.class))
+				|| (parameterContext.isAnnotated(TestPropagator.class)
+						&& parameterType.isAssignableFrom(Propagator.class))
+				|| (parameterContext.isAnnotated(TestClock.class)
+						&& parameterType.isAssignableFrom(VirtualClock.class));
 	}
 
 	@Override
 	public Object resolveParameter(final ParameterContext parameterContext, final ExtensionContext extensionContext)
 			throws ParameterResolutionException {
 
+		if (parameterContext.isAnnotated(TestTracer.class)) {
+			return this.tracerSupplier.get();
+		}
+
+		if (parameterContext.isAnnotated(TestPropagator.class)) {
+			return this.propagatorSupplier.get();
+		}
+
+		if (parameterContext.isAnnotated(TestClock.class)) {
+			return this.clockSupplier.get();
+		}
+
 		return this.spanCollector;
 	}
 
 	@Override
 	public void postProcessTestInstance(final Object testInstance, final ExtensionContext context) throws Exception {
 
-		for (final Field field : FieldUtils.getAllFields(testInstance.getClass())) {
-			this.injectIfNeeded(field, Spans.class, testInstance, this.spanCollector);
-			this.injectIfNeeded(field, TestTracer.class, testInstance, Tracer.class, this.tracerSupplier);
+		// The injection metadata is stored at the root context, so it is shared by all
+		// the instances of the same test class
+		final InjectionMetadata metadata = context.getRoot()
+			.getStore(NAMESPACE)
+			.getOrComputeIfAbsent(testInstance.getClass(), InjectionMetadata::forClass, InjectionMetadata.class);
+
+		metadata.inject(testInstance, this.spanCollector, this.tracerSupplier, this.propagatorSupplier,
+				this.clockSupplier);
+
+	}
+
+	private void dumpJfrRecording(final ExtensionContext context) {
+		final SpanRecording recording = context.getStore(NAMESPACE).remove(SpanRecording.class, SpanRecording.class);
+		if (recording == null) {
+			return;
 		}
 
+		try (recording) {
+			final Path file = recording
+				.dump(Path.of(findJfrRecording(context).orElseThrow().destination()).resolve(jfrFileName(context)));
+			logger.info("JFR recording of test '" + context.getDisplayName() + "' written to " + file.toAbsolutePath());
+		}
 	}
 
-	private void injectIfNeeded(final Field field, final Class<? extends Annotation> annotation,
-			final Object testInstance, final Object toInject) {
+	private static String jfrFileName(final ExtensionContext context) {
+		final String fileName = testName(context).replace('#', '-');
 
-		if (field.isAnnotationPresent(annotation) && field.getType().isAssignableFrom(toInject.getClass())) {
-			ReflectionUtils.makeAccessible(field);
-			ReflectionUtils.setField(field, testInstance, toInject);
+		// Parameterized and repeated tests run the same method several times, so the
+		// invocation (e.g. [test-template-invocation:#2]) is added to the name
+		final String uniqueId = context.getUniqueId();
+		final String lastSegment = uniqueId.substring(uniqueId.lastIndexOf("/[") + 2, uniqueId.length() - 1);
+		if (lastSegment.startsWith("method:")) {
+			return fileName + ".jfr";
 		}
+		return fileName + "-" + lastSegment.substring(lastSegment.indexOf(':') + 1).replaceAll("[^\\w.-]", "") + ".jfr";
 	}
 
-	private <T> void injectIfNeeded(final Field field, final Class<? extends Annotation> annotation,
-			final Object testInstance, final Class<T> toInjectType, final Supplier<T> toInject) {
+	private static String testName(final ExtensionContext context) {
+		return context.getRequiredTestClass().getSimpleName() + "#" + context.getRequiredTestMethod().getName();
+	}
 
-		if (field.isAnnotationPresent(annotation) && field.getType().isAssignableFrom(toInjectType)) {
+	private static boolean isHotSpotReportEnabled(final ExtensionContext context) {
+		// Only the constant is used, so the listener, and the JUnit launcher it depends on,
+		// are not loaded
+		return context.getConfigurationParameter(HotSpotReportListener.ENABLED_PROPERTY, Boolean::parseBoolean)
+			.orElse(false);
+	}
 
-			ReflectionUtils.makeAccessible(field);
-			ReflectionUtils.setField(field, testInstance, toInject.get());
+	private static Optional<JfrRecording> findJfrRecording(final ExtensionContext context) {
+		return AnnotationSupport.findAnnotation(context.getElement(), JfrRecording.class)
+			.or(() -> AnnotationSupport.findAnnotation(context.getRequiredTestClass(), JfrRecording.class));
+	}
+
+	private UnfinishedSpansTracking unfinishedSpansTracking(final boolean stackTrace) {
+		if (this.unfinishedSpansPolicy == UnfinishedSpansPolicy.IGNORE) {
+			return UnfinishedSpansTracking.NONE;
+		}
+		return stackTrace ? UnfinishedSpansTracking.SPANS_AND_STACK_TRACES : UnfinishedSpansTracking.SPANS;
+	}
+
+	private void checkUnfinishedSpans(final ExtensionContext context) {
+		if (this.unfinishedSpansPolicy == UnfinishedSpansPolicy.IGNORE) {
+			return;
+		}
+
+		final List<UnfinishedSpan> unfinishedSpans = this.spanCollector.getUnfinishedSpans();
+		if (unfinishedSpans.isEmpty()) {
+			return;
+		}
 
+		final String message = describe(context, unfinishedSpans);
+		if (this.unfinishedSpansPolicy == UnfinishedSpansPolicy.FAIL) {
+			throw new AssertionError(message);
 		}
+		logger.warn(message);
+	}
+
+	private static String describe(final ExtensionContext context, final List<UnfinishedSpan> unfinishedSpans) {
+		final String lineSeparator = System.lineSeparator();
+		final StringBuilder description = new StringBuilder().append(unfinishedSpans.size())
+			.append(" span(s) started but not finished at test '")
+			.append(context.getDisplayName())
+			.append("':");
+
+		for (final UnfinishedSpan unfinishedSpan : unfinishedSpans) {
+			description.append(lineSeparator).append(" - ").append(unfinishedSpan);
+			final StackTraceElement[] stackTrace = unfinishedSpan.getStartStackTrace();
+			for (int i = 0; i < Math.min(REPORTED_STACK_FRAMES, stackTrace.length); i++) {
+				description.append(lineSeparator).append("     at ").append(stackTrace[i]);
+			}
+		}
+
+		return description.toString();
 	}
 
 	private Tracer getTracer() {
 
+		if (this.standaloneTracing != null) {
+			return this.standaloneTracing.getTracer();
+		}
+
 		try {
 			return this.appContext.getBean(Tracer.class);
 		}
@@ -135,11 +306,48 @@ public class TracingExtension implements AfterEachCallback, BeforeAllCallback, A
 			// TODO: See if it is really necessary and, if it is, decouple it from the
 			// otel implementation
 			final var otelTracer = this.appContext.getBean(io.opentelemetry.api.trace.Tracer.class);
-			return new OtelTracer(otelTracer, new OtelCurrentTraceContext(), (event) -> {
-			}, BaggageManager.NOOP);
+			final var currentTraceContext = new OtelCurrentTraceContext();
+			final List<String> remoteFields = Binder.get(this.appContext.getEnvironment())
+				.bind("management.tracing.baggage.remote-fields", Bindable.listOf(String.class))
+				.orElse(List.of());
+			return new OtelTracer(otelTracer, currentTraceContext, (event) -> {
+			}, new OtelBaggageManager(currentTraceContext, remoteFields, List.of()));
+
+		}
+
+	}
+
+	private Propagator getPropagator() {
+
+		if (this.standaloneTracing != null) {
+			return this.standaloneTracing.getPropagator();
+		}
+
+		try {
+			return this.appContext.getBean(Propagator.class);
+		}
+		catch (final NoSuchBeanDefinitionException ex) {
+
+			// same fallback than the tracer, for tests which does not use spring contexts
+			return new OtelPropagator(
+					this.appContext.getBeanProvider(ContextPropagators.class).getIfAvailable(ContextPropagators::noop),
+					this.appContext.getBean(io.opentelemetry.api.trace.Tracer.class));
+
+		}
+
+	}
+
+	private VirtualClock getVirtualClock() {
+
+		final VirtualClock clock = (this.standaloneTracing != null) ? this.virtualClock
+				: this.appContext.getBeanProvider(VirtualClock.class).getIfAvailable();
 
+		if (clock == null) {
+			throw new IllegalStateException("There is no virtual clock to inject. Enable it with "
+					+ "@TracingTest(virtualClock = true) or @StandaloneTracingTest(virtualClock = true)");
 		}
 
+		return clock;
 	}
 
 }
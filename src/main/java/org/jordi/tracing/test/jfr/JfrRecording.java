@@ -0,0 +1,60 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.jfr;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Records every test of a {@code TracingTest} or {@code StandaloneTracingTest} class (or
+ * the annotated test method) with Java Flight Recorder, emitting a {@link SpanEvent} for
+ * every span, so they can be analyzed lined up with the JVM events.
+ *
+ * <p>
+ * Each test is written to its own file, named after the test class and method, at the
+ * {@link #destination() destination} directory. The invocations of parameterized and
+ * repeated tests are also numbered, e.g. {@code MyTest-myMethod-2.jfr}.
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ * @see SpanRecording
+ */
+@Documented
+@Inherited
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.TYPE, ElementType.METHOD })
+public @interface JfrRecording {
+
+	/**
+	 * The JFR settings of the JVM events: {@code default}, {@code profile} or the path of
+	 * a settings file.
+	 * @return the settings
+	 */
+	String settings() default "profile";
+
+	/**
+	 * The directory where the recordings are written.
+	 * @return the destination directory
+	 */
+	String destination() default "target/jfr";
+
+}
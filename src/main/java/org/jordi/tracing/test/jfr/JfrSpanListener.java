@@ -0,0 +1,88 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.jfr;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.micrometer.tracing.exporter.FinishedSpan;
+import jdk.jfr.EventType;
+import org.jordi.tracing.test.collector.FinishedSpans;
+import org.jordi.tracing.test.collector.SpanListener;
+
+/**
+ * {@link SpanListener} which emits a {@link SpanEvent} for every finished span, begun
+ * when the span is started.
+ *
+ * <p>
+ * The events are only created when the event is enabled at a running recording, for
+ * instance one started with {@code -XX:StartFlightRecording} or with
+ * {@link SpanRecording}.
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public class JfrSpanListener implements SpanListener {
+
+	private static final EventType SPAN_EVENT_TYPE = EventType.getEventType(SpanEvent.class);
+
+	private final Map<String, SpanEvent> startedEvents = new ConcurrentHashMap<>();
+
+	@Override
+	public void onSpanStarted(final String traceId, final String spanId) {
+		if (!SPAN_EVENT_TYPE.isEnabled()) {
+			return;
+		}
+
+		final SpanEvent event = new SpanEvent();
+		event.begin();
+		this.startedEvents.put(key(traceId, spanId), event);
+	}
+
+	@Override
+	public void onSpanFinished(final FinishedSpan span) {
+		SpanEvent event = this.startedEvents.isEmpty() ? null
+				: this.startedEvents.remove(key(span.getTraceId(), span.getSpanId()));
+		if (event == null) {
+			if (!SPAN_EVENT_TYPE.isEnabled()) {
+				return;
+			}
+			// Started before the recording, so the event only covers the end of the span
+			event = new SpanEvent();
+		}
+
+		event.traceId = span.getTraceId();
+		event.spanId = span.getSpanId();
+		event.parentId = FinishedSpans.parentId(span);
+		event.name = span.getName();
+		event.kind = (span.getKind() != null) ? span.getKind().name() : null;
+		event.spanDuration = FinishedSpans.duration(span).toNanos();
+		event.error = span.getError() != null;
+		event.commit();
+	}
+
+	@Override
+	public void onReset() {
+		this.startedEvents.clear();
+	}
+
+	private static String key(final String traceId, final String spanId) {
+		return traceId + '/' + spanId;
+	}
+
+}
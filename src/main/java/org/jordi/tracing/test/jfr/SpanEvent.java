@@ -0,0 +1,79 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * Java Flight Recorder event of a finished span.
+ *
+ * <p>
+ * It begins when the span is started and it is committed when the span finishes, at the
+ * thread which finishes it, so it covers the span and can be lined up with the JVM events
+ * (GC, lock contention, I/O...) recorded at the same time. Brave spans begin when they
+ * are created.
+ * </p>
+ *
+ * <p>
+ * The spans started before the recording only get an event when they finish, so the
+ * duration of the span is also recorded as a field.
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+@Name(SpanEvent.NAME)
+@Label("Span")
+@Category("Tracing")
+@Description("A finished tracing span")
+@StackTrace(false)
+public class SpanEvent extends Event {
+
+	/**
+	 * Name of the event.
+	 */
+	public static final String NAME = "org.jordi.tracing.Span";
+
+	@Label("Trace Id")
+	String traceId;
+
+	@Label("Span Id")
+	String spanId;
+
+	@Label("Parent Id")
+	String parentId;
+
+	@Label("Name")
+	String name;
+
+	@Label("Kind")
+	String kind;
+
+	@Label("Span Duration")
+	@Timespan(Timespan.NANOSECONDS)
+	long spanDuration;
+
+	@Label("Error")
+	boolean error;
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.jfr;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.jordi.tracing.test.collector.SpanCollector;
+
+/**
+ * Java Flight Recorder recording of the spans collected by a {@link SpanCollector},
+ * together with the JVM events of the chosen settings.
+ *
+ * <p>
+ * Example of use:
+ *
+ * <pre>
+ * try (SpanRecording recording = SpanRecording.start(spanCollector, "profile")) {
+ *   // code under test
+ *   recording.dump(Path.of("target/jfr/my-test.jfr"));
+ * }
+ * </pre>
+ *
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ * @see JfrRecording
+ */
+public final class SpanRecording implements AutoCloseable {
+
+	private final Recording recording;
+
+	private final SpanCollector spanCollector;
+
+	private final JfrSpanListener spanListener = new JfrSpanListener();
+
+	private SpanRecording(final Recording recording, final SpanCollector spanCollector) {
+		this.recording = recording;
+		this.spanCollector = spanCollector;
+	}
+
+	/**
+	 * Starts a recording of the spans collected from now on.
+	 * @param spanCollector the span collector whose spans are recorded
+	 * @param settings the name of the JFR settings of the JVM events ({@code default} or
+	 * {@code profile}) or the path of a settings file
+	 * @return the started recording
+	 * @throws IllegalArgumentException if the settings can not be loaded
+	 */
+	public static SpanRecording start(final SpanCollector spanCollector, final String settings) {
+		final Recording recording = new Recording(loadConfiguration(settings));
+		recording.setName("tracing-test");
+		recording.enable(SpanEvent.class);
+
+		final SpanRecording spanRecording = new SpanRecording(recording, spanCollector);
+		spanCollector.addSpanListener(spanRecording.spanListener);
+		recording.start();
+		return spanRecording;
+	}
+
+	/**
+	 * Stops the recording and writes it to a file.
+	 * @param destination the file where the recording is written. The parent directories
+	 * are created if they do not exist.
+	 * @return the written file
+	 */
+	public Path dump(final Path destination) {
+		this.stop();
+		try {
+			if (destination.getParent() != null) {
+				Files.createDirectories(destination.getParent());
+			}
+			this.recording.dump(destination);
+			return destination;
+		}
+		catch (final IOException ex) {
+			throw new UncheckedIOException("Could not write the recording to '" + destination + "'", ex);
+		}
+	}
+
+	/**
+	 * Stops and discards the recording.
+	 */
+	@Override
+	public void close() {
+		this.stop();
+		this.recording.close();
+	}
+
+	private void stop() {
+		this.spanCollector.removeSpanListener(this.spanListener);
+		if (this.recording.getState() == RecordingState.RUNNING) {
+			this.recording.stop();
+		}
+	}
+
+	private static Configuration loadConfiguration(final String settings) {
+		try {
+			if (settings.endsWith(".jfc")) {
+				return Configuration.create(Path.of(settings));
+			}
+			return Configuration.getConfiguration(settings);
+		}
+		catch (final IOException | ParseException ex) {
+			throw new IllegalArgumentException("Could not load the JFR settings '" + settings + "'", ex);
+		}
+	}
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.metrics;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.tracing.exporter.FinishedSpan;
+import org.jordi.tracing.test.collector.SpanCollector;
+
+/**
+ * Records the spans collected by a {@link SpanCollector} as Micrometer metrics.
+ *
+ * <p>
+ * Every finished span is recorded at the {@value #SPAN_DURATION_METRIC} {@link Timer},
+ * tagged by span name and error status. The spans with error are also counted at the
+ * {@value #SPAN_ERRORS_METRIC} {@link Counter}, tagged by span name and exception.
+ * </p>
+ *
+ * <p>
+ * The metrics are derived from the finished spans of the collector when they are read
+ * with {@link #getMeterRegistry()} or {@link #report()}, so ending a span does not do
+ * any work for them. They reflect the spans collected at the time of the read, so they
+ * are empty again after the collector is reset.
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public class SpanMetricsRecorder {
+
+	/**
+	 * Name of the timer which records the duration of the spans.
+	 */
+	public static final String SPAN_DURATION_METRIC = "test.span.duration";
+
+	/**
+	 * Name of the counter which counts the spans with error.
+	 */
+	public static final String SPAN_ERRORS_METRIC = "test.span.errors";
+
+	/**
+	 * Tag with the name of the span.
+	 */
+	public static final String SPAN_NAME_TAG = "span.name";
+
+	/**
+	 * Tag with the error status of the span.
+	 */
+	public static final String ERROR_TAG = "error";
+
+	/**
+	 * Tag with the exception of the span.
+	 */
+	public static final String EXCEPTION_TAG = "exception";
+
+	private static final String UNKNOWN_EXCEPTION = "unknown";
+
+	private final SpanCollector spanCollector;
+
+	private final MeterRegistry meterRegistry;
+
+	private List<FinishedSpan> recordedSpans = List.of();
+
+	/**
+	 * Constructor which records the metrics at a new {@link SimpleMeterRegistry}.
+	 * @param spanCollector the collector of the spans to record
+	 */
+	public SpanMetricsRecorder(final SpanCollector spanCollector) {
+		this(spanCollector, new SimpleMeterRegistry());
+	}
+
+	/**
+	 * Constructor.
+	 * @param spanCollector the collector of the spans to record
+	 * @param meterRegistry the registry where the metrics are recorded
+	 */
+	public SpanMetricsRecorder(final SpanCollector spanCollector, final MeterRegistry meterRegistry) {
+		this.spanCollector = spanCollector;
+		this.meterRegistry = meterRegistry;
+	}
+
+	/**
+	 * Returns the registry where the metrics are recorded, with the metrics of the spans
+	 * collected so far. It has to be read again to see the spans finished later.
+	 * @return the meter registry
+	 */
+	public MeterRegistry getMeterRegistry() {
+		this.update();
+		return this.meterRegistry;
+	}
+
+	/**
+	 * Returns a human readable report of the recorded metrics, one line per meter.
+	 * @return the report
+	 */
+	public String report() {
+		this.update();
+		final StringBuilder report = new StringBuilder();
+
+		this.meterRegistry.getMeters()
+			.stream()
+			.sorted(Comparator.comparing((meter) -> meter.getId().toString()))
+			.forEach((meter) -> report.append(format(meter)).append(System.lineSeparator()));
+
+		return report.toString();
+	}
+
+	private synchronized void update() {
+		final List<FinishedSpan> spans = this.spanCollector.getFinishedSpans();
+		if (spans == this.recordedSpans) {
+			return;
+		}
+
+		// The spans are recorded again, as the ones of the previous read may have been
+		// reset. Only the own meters are removed, the registry can be shared.
+		this.meterRegistry.getMeters()
+			.stream()
+			.filter((meter) -> SPAN_DURATION_METRIC.equals(meter.getId().getName())
+					|| SPAN_ERRORS_METRIC.equals(meter.getId().getName()))
+			.forEach(this.meterRegistry::remove);
+		spans.forEach(this::record);
+		this.recordedSpans = spans;
+	}
+
+	private void record(final FinishedSpan span) {
+		final boolean error = isError(span);
+
+		Timer.builder(SPAN_DURATION_METRIC)
+			.description("Duration of the finished spans")
+			.tag(SPAN_NAME_TAG, String.valueOf(span.getName()))
+			.tag(ERROR_TAG, String.valueOf(error))
+			.register(this.meterRegistry)
+			.record(Duration.between(span.getStartTimestamp(), span.getEndTimestamp()));
+
+		if (error) {
+			Counter.builder(SPAN_ERRORS_METRIC)
+				.description("Number of finished spans with error")
+				.tag(SPAN_NAME_TAG, String.valueOf(span.getName()))
+				.tag(EXCEPTION_TAG, exceptionName(span))
+				.register(this.meterRegistry)
+				.increment();
+		}
+	}
+
+	private static String format(final Meter meter) {
+		final var id = meter.getId();
+
+		if (meter instanceof Timer timer) {
+			return String.format(Locale.ROOT, "%s%s count=%d total=%.3fms max=%.3fms mean=%.3fms", id.getName(),
+					id.getTags(), timer.count(), timer.totalTime(TimeUnit.MILLISECONDS),
+					timer.max(TimeUnit.MILLISECONDS), timer.mean(TimeUnit.MILLISECONDS));
+		}
+
+		if (meter instanceof Counter counter) {
+			return String.format(Locale.ROOT, "%s%s count=%.0f", id.getName(), id.getTags(), counter.count());
+		}
+
+		return id.getName() + id.getTags();
+	}
+
+	private static boolean isError(final FinishedSpan span) {
+		return span.getError() != null || span.getTags().containsKey(ERROR_TAG);
+	}
+
+	private static String exceptionName(final FinishedSpan span) {
+		return (span.getError() != null) ? span.getError().getClass().getSimpleName() : UNKNOWN_EXCEPTION;
+	}
+
+}
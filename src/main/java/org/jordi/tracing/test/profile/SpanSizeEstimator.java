@@ -0,0 +1,217 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.profile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+
+import io.micrometer.tracing.exporter.FinishedSpan;
+import org.jordi.tracing.test.collector.FinishedSpans;
+
+/**
+ * Estimates the serialized size of a span without serializing it.
+ *
+ * <p>
+ * The estimation follows the encoding of each format field by field, so it is exact for
+ * the fields available at {@link FinishedSpan} and ignores the rest (for instance the
+ * local endpoint or the resource).
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+final class SpanSizeEstimator {
+
+	private static final int TRACE_ID_BYTES = 16;
+
+	private static final int SPAN_ID_BYTES = 8;
+
+	private static final int FIXED64_BYTES = 8;
+
+	private SpanSizeEstimator() {
+	}
+
+	static int estimate(final FinishedSpan span, final SpanFormat format) {
+		return switch (format) {
+			case ZIPKIN_JSON -> zipkinJsonSize(span);
+			case OTLP_PROTOBUF -> otlpProtobufSize(span);
+		};
+	}
+
+	/**
+	 * Size of the span encoded as Zipkin JSON v2.
+	 */
+	private static int zipkinJsonSize(final FinishedSpan span) {
+		// {"traceId":"..","id":"..","name":"..","timestamp":..,"duration":..}
+		int size = 2;
+		size += jsonField("traceId", span.getTraceId());
+		final String parentId = FinishedSpans.parentId(span);
+		if (parentId != null) {
+			size += 1 + jsonField("parentId", parentId);
+		}
+		size += 1 + jsonField("id", span.getSpanId());
+		if (span.getKind() != null) {
+			size += 1 + jsonField("kind", span.getKind().name());
+		}
+		if (span.getName() != null) {
+			size += 1 + jsonField("name", span.getName());
+		}
+		final long startMicros = toMicros(span.getStartTimestamp().getEpochSecond(),
+				span.getStartTimestamp().getNano());
+		size += 1 + jsonNumberField("timestamp", startMicros);
+		size += 1 + jsonNumberField("duration", Math.max(1, FinishedSpans.duration(span).toNanos() / 1000));
+
+		if (span.getRemoteServiceName() != null || span.getRemoteIp() != null) {
+			// ,"remoteEndpoint":{...}
+			int endpoint = 2;
+			boolean first = true;
+			if (span.getRemoteServiceName() != null) {
+				endpoint += jsonField("serviceName", span.getRemoteServiceName());
+				first = false;
+			}
+			if (span.getRemoteIp() != null) {
+				endpoint += (first ? 0 : 1) + jsonField("ipv4", span.getRemoteIp());
+				first = false;
+			}
+			if (span.getRemotePort() > 0) {
+				endpoint += (first ? 0 : 1) + jsonNumberField("port", span.getRemotePort());
+			}
+			size += 1 + jsonString("remoteEndpoint") + 1 + endpoint;
+		}
+
+		final Collection<Map.Entry<Long, String>> events = span.getEvents();
+		if (!events.isEmpty()) {
+			// ,"annotations":[{"timestamp":..,"value":".."},...]
+			int annotations = 2 + (events.size() - 1);
+			for (final Map.Entry<Long, String> event : events) {
+				annotations += 2 + jsonNumberField("timestamp", event.getKey());
+				annotations += 1 + jsonField("value", event.getValue());
+			}
+			size += 1 + jsonString("annotations") + 1 + annotations;
+		}
+
+		final Map<String, String> tags = FinishedSpans.tags(span);
+		if (!tags.isEmpty()) {
+			// ,"tags":{"k":"v",...}
+			int tagsSize = 2 + (tags.size() - 1);
+			for (final Map.Entry<String, String> tag : tags.entrySet()) {
+				tagsSize += jsonField(tag.getKey(), tag.getValue());
+			}
+			size += 1 + jsonString("tags") + 1 + tagsSize;
+		}
+
+		return size;
+	}
+
+	/**
+	 * Size of the span encoded as an OTLP protobuf {@code Span} message, including its
+	 * tag and length at the enclosing {@code ScopeSpans}.
+	 */
+	private static int otlpProtobufSize(final FinishedSpan span) {
+		int size = 0;
+		size += bytesField(TRACE_ID_BYTES);
+		size += bytesField(SPAN_ID_BYTES);
+		if (FinishedSpans.parentId(span) != null) {
+			size += bytesField(SPAN_ID_BYTES);
+		}
+		size += stringField(span.getName());
+		// kind, always set as local spans are INTERNAL
+		size += 2;
+		// start and end time
+		size += 2 * (1 + FIXED64_BYTES);
+
+		for (final Map.Entry<String, String> tag : FinishedSpans.tags(span).entrySet()) {
+			// KeyValue { key, AnyValue { string_value } }
+			final int keyValue = stringField(tag.getKey()) + bytesField(stringField(tag.getValue()));
+			size += bytesField(keyValue);
+		}
+
+		for (final Map.Entry<Long, String> event : span.getEvents()) {
+			// Event { time_unix_nano, name }
+			size += bytesField(1 + FIXED64_BYTES + stringField(event.getValue()));
+		}
+
+		if (span.getError() != null || span.getTags().containsKey("error")) {
+			// Status { code = ERROR }
+			size += bytesField(2);
+		}
+
+		return bytesField(size);
+	}
+
+	private static int jsonField(final String name, final String value) {
+		return jsonString(name) + 1 + ((value != null) ? jsonString(value) : 4);
+	}
+
+	private static int jsonNumberField(final String name, final long value) {
+		return jsonString(name) + 1 + Long.toString(value).length();
+	}
+
+	private static int jsonString(final String value) {
+		int size = 2;
+		for (int i = 0; i < value.length(); i++) {
+			final char c = value.charAt(i);
+			if (c == '"' || c == '\\' || c == '\b' || c == '\f' || c == '\n' || c == '\r' || c == '\t') {
+				size += 2;
+			}
+			else if (c < 0x20) {
+				size += 6;
+			}
+			else if (c < 0x80) {
+				size += 1;
+			}
+			else if (c < 0x800) {
+				size += 2;
+			}
+			else if (Character.isHighSurrogate(c)) {
+				size += 4;
+				i++;
+			}
+			else {
+				size += 3;
+			}
+		}
+		return size;
+	}
+
+	private static int stringField(final String value) {
+		if (value == null || value.isEmpty()) {
+			return 0;
+		}
+		return bytesField(value.getBytes(StandardCharsets.UTF_8).length);
+	}
+
+	private static int bytesField(final int length) {
+		return 1 + varintSize(length) + length;
+	}
+
+	private static int varintSize(final int value) {
+		int size = 1;
+		int remaining = value >>> 7;
+		while (remaining != 0) {
+			size++;
+			remaining >>>= 7;
+		}
+		return size;
+	}
+
+	private static long toMicros(final long epochSeconds, final int nanos) {
+		return epochSeconds * 1_000_000L + nanos / 1000;
+	}
+
+}
@@ -0,0 +1,269 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.profile;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import io.micrometer.tracing.exporter.FinishedSpan;
+import org.jordi.tracing.test.collector.FinishedSpans;
+import org.jordi.tracing.test.collector.SpanCollector;
+
+/**
+ * Size and tag cardinality profile of the spans collected at a test.
+ *
+ * <p>
+ * For every span name it reports the estimated serialized size at each
+ * {@link SpanFormat}, the number of tags and the number of distinct values of each tag
+ * key. It also offers assertions to catch payload bloat and high cardinality tags at the
+ * tests:
+ *
+ * <pre>
+ * SpanSizeProfile.of(spanCollector)
+ *   .assertSpanSizeUnder("http get", SpanFormat.OTLP_PROTOBUF, 1024)
+ *   .assertTagCardinalityUnder("http.url", 10);
+ * </pre>
+ *
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public final class SpanSizeProfile {
+
+	private final Map<String, SpanNameProfile> profiles;
+
+	private final Map<String, Set<String>> tagValues;
+
+	private SpanSizeProfile(final Map<String, SpanNameProfile> profiles, final Map<String, Set<String>> tagValues) {
+		this.profiles = profiles;
+		this.tagValues = tagValues;
+	}
+
+	/**
+	 * Profiles the spans currently collected by the given collector.
+	 * @param spanCollector the span collector
+	 * @return the profile
+	 */
+	public static SpanSizeProfile of(final SpanCollector spanCollector) {
+		return of(spanCollector.getFinishedSpans());
+	}
+
+	/**
+	 * Profiles the given spans.
+	 * @param spans the spans
+	 * @return the profile
+	 */
+	public static SpanSizeProfile of(final List<FinishedSpan> spans) {
+		final Map<String, SpanNameProfile> profiles = new TreeMap<>();
+		final Map<String, Set<String>> tagValues = new TreeMap<>();
+
+		for (final FinishedSpan span : spans) {
+			profiles.computeIfAbsent(String.valueOf(span.getName()), SpanNameProfile::new).add(span);
+			FinishedSpans.tags(span)
+				.forEach((key, value) -> tagValues.computeIfAbsent(key, (k) -> new HashSet<>()).add(value));
+		}
+
+		return new SpanSizeProfile(Collections.unmodifiableMap(profiles), tagValues);
+	}
+
+	/**
+	 * Returns the profile of every span name.
+	 * @return the profiles by span name
+	 */
+	public Map<String, SpanNameProfile> getProfiles() {
+		return this.profiles;
+	}
+
+	/**
+	 * Returns the profile of the spans with the given name.
+	 * @param spanName the span name
+	 * @return the profile
+	 * @throws AssertionError if there is no span with that name
+	 */
+	public SpanNameProfile getProfile(final String spanName) {
+		final SpanNameProfile profile = this.profiles.get(spanName);
+		if (profile == null) {
+			throw new AssertionError("No span with name '" + spanName + "' was collected. Collected span names: "
+					+ this.profiles.keySet());
+		}
+		return profile;
+	}
+
+	/**
+	 * Returns the number of distinct values of a tag key, among all the spans.
+	 * @param tagKey the tag key
+	 * @return the cardinality of the tag
+	 */
+	public int getTagCardinality(final String tagKey) {
+		final Set<String> values = this.tagValues.get(tagKey);
+		return (values != null) ? values.size() : 0;
+	}
+
+	/**
+	 * Asserts that no span with the given name exceeds a size.
+	 * @param spanName the span name
+	 * @param format the wire format
+	 * @param maxBytes the exclusive upper bound of the size, in bytes
+	 * @return this profile
+	 * @throws AssertionError if any span is bigger
+	 */
+	public SpanSizeProfile assertSpanSizeUnder(final String spanName, final SpanFormat format, final int maxBytes) {
+		final int size = this.getProfile(spanName).getMaxSize(format);
+		if (size >= maxBytes) {
+			throw new AssertionError("Expected spans '" + spanName + "' to be under " + maxBytes + " bytes as "
+					+ format + " but the biggest one is " + size + " bytes");
+		}
+		return this;
+	}
+
+	/**
+	 * Asserts that a tag key has less distinct values than a limit, among all the spans.
+	 * @param tagKey the tag key
+	 * @param maxCardinality the exclusive upper bound of distinct values
+	 * @return this profile
+	 * @throws AssertionError if the tag has more distinct values
+	 */
+	public SpanSizeProfile assertTagCardinalityUnder(final String tagKey, final int maxCardinality) {
+		final int cardinality = this.getTagCardinality(tagKey);
+		if (cardinality >= maxCardinality) {
+			throw new AssertionError("Expected tag '" + tagKey + "' to have less than " + maxCardinality
+					+ " distinct values but it has " + cardinality);
+		}
+		return this;
+	}
+
+	/**
+	 * Returns a human readable report of the profile, one line per span name.
+	 * @return the report
+	 */
+	public String report() {
+		final StringBuilder report = new StringBuilder();
+		this.profiles.values().forEach((profile) -> report.append(profile).append(System.lineSeparator()));
+		return report.toString();
+	}
+
+	@Override
+	public String toString() {
+		return this.report();
+	}
+
+	/**
+	 * Size and tag cardinality profile of the spans with the same name.
+	 */
+	public static final class SpanNameProfile {
+
+		private final String spanName;
+
+		private int count;
+
+		private int maxTagCount;
+
+		private final Map<SpanFormat, long[]> sizes = new EnumMap<>(SpanFormat.class);
+
+		private final Map<String, Set<String>> tagValues = new HashMap<>();
+
+		SpanNameProfile(final String spanName) {
+			this.spanName = spanName;
+			for (final SpanFormat format : SpanFormat.values()) {
+				// total and max
+				this.sizes.put(format, new long[2]);
+			}
+		}
+
+		void add(final FinishedSpan span) {
+			this.count++;
+			final Map<String, String> tags = FinishedSpans.tags(span);
+			this.maxTagCount = Math.max(this.maxTagCount, tags.size());
+			this.sizes.forEach((format, size) -> {
+				final int spanSize = SpanSizeEstimator.estimate(span, format);
+				size[0] += spanSize;
+				size[1] = Math.max(size[1], spanSize);
+			});
+			tags.forEach((key, value) -> this.tagValues.computeIfAbsent(key, (k) -> new HashSet<>()).add(value));
+		}
+
+		/**
+		 * Returns the span name.
+		 * @return the span name
+		 */
+		public String getSpanName() {
+			return this.spanName;
+		}
+
+		/**
+		 * Returns the number of spans with this name.
+		 * @return the number of spans
+		 */
+		public int getCount() {
+			return this.count;
+		}
+
+		/**
+		 * Returns the mean estimated size of the spans.
+		 * @param format the wire format
+		 * @return the mean size in bytes
+		 */
+		public double getMeanSize(final SpanFormat format) {
+			return (double) this.sizes.get(format)[0] / this.count;
+		}
+
+		/**
+		 * Returns the estimated size of the biggest span.
+		 * @param format the wire format
+		 * @return the max size in bytes
+		 */
+		public int getMaxSize(final SpanFormat format) {
+			return (int) this.sizes.get(format)[1];
+		}
+
+		/**
+		 * Returns the maximum number of tags of a span.
+		 * @return the max tag count
+		 */
+		public int getMaxTagCount() {
+			return this.maxTagCount;
+		}
+
+		/**
+		 * Returns the number of distinct values of every tag key.
+		 * @return the cardinality by tag key
+		 */
+		public Map<String, Integer> getTagCardinalities() {
+			final Map<String, Integer> cardinalities = new TreeMap<>();
+			this.tagValues.forEach((key, values) -> cardinalities.put(key, values.size()));
+			return cardinalities;
+		}
+
+		@Override
+		public String toString() {
+			return String.format(Locale.ROOT, "%s count=%d zipkin(mean=%.0fB max=%dB) otlp(mean=%.0fB max=%dB) "
+					+ "maxTags=%d cardinality=%s", this.spanName, this.count, this.getMeanSize(SpanFormat.ZIPKIN_JSON),
+					this.getMaxSize(SpanFormat.ZIPKIN_JSON), this.getMeanSize(SpanFormat.OTLP_PROTOBUF),
+					this.getMaxSize(SpanFormat.OTLP_PROTOBUF), this.maxTagCount, this.getTagCardinalities());
+		}
+
+	}
+
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.report;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Renders the rankings of {@link SpanHotSpot}s as JSON and HTML.
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+final class HotSpotReport {
+
+	private final List<SpanHotSpot> slowest;
+
+	private final List<SpanHotSpot> mostFrequent;
+
+	private final int testsLimit;
+
+	HotSpotReport(final List<SpanHotSpot> slowest, final List<SpanHotSpot> mostFrequent, final int testsLimit) {
+		this.slowest = slowest;
+		this.mostFrequent = mostFrequent;
+		this.testsLimit = testsLimit;
+	}
+
+	String toJson() {
+		final StringBuilder json = new StringBuilder("{\n");
+		json.append("  \"slowest\": ");
+		this.appendJson(json, this.slowest);
+		json.append(",\n  \"mostFrequent\": ");
+		this.appendJson(json, this.mostFrequent);
+		return json.append("\n}\n").toString();
+	}
+
+	String toHtml() {
+		final StringBuilder html = new StringBuilder();
+		html.append("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n<title>Tracing hot spots</title>\n")
+			.append("<style>body{font-family:sans-serif}table{border-collapse:collapse;margin-bottom:2em}")
+			.append("th,td{border:1px solid #ccc;padding:4px 8px;text-align:left}td.n{text-align:right}</style>\n")
+			.append("</head>\n<body>\n<h1>Tracing hot spots</h1>\n");
+		this.appendHtml(html, "Slowest spans (total duration)", this.slowest);
+		this.appendHtml(html, "Most frequent spans", this.mostFrequent);
+		return html.append("</body>\n</html>\n").toString();
+	}
+
+	private void appendJson(final StringBuilder json, final List<SpanHotSpot> hotSpots) {
+		json.append('[');
+		for (int i = 0; i < hotSpots.size(); i++) {
+			final SpanHotSpot hotSpot = hotSpots.get(i);
+			json.append((i == 0) ? "\n" : ",\n")
+				.append("    {\"name\": ")
+				.append(jsonString(hotSpot.getName()))
+				.append(", \"count\": ")
+				.append(hotSpot.getCount())
+				.append(", \"totalNanos\": ")
+				.append(hotSpot.getTotalDuration().toNanos())
+				.append(", \"meanNanos\": ")
+				.append(hotSpot.getMeanDuration().toNanos())
+				.append(", \"maxNanos\": ")
+				.append(hotSpot.getMaxDuration().toNanos())
+				.append(", \"tests\": [");
+
+			final List<SpanHotSpot.TestSpans> tests = hotSpot.getTests(this.testsLimit);
+			for (int j = 0; j < tests.size(); j++) {
+				final SpanHotSpot.TestSpans test = tests.get(j);
+				json.append((j == 0) ? "" : ", ")
+					.append("{\"test\": ")
+					.append(jsonString(test.getTest()))
+					.append(", \"count\": ")
+					.append(test.getCount())
+					.append(", \"totalNanos\": ")
+					.append(test.getTotalDuration().toNanos())
+					.append('}');
+			}
+			json.append("]}");
+		}
+		json.append(hotSpots.isEmpty() ? "]" : "\n  ]");
+	}
+
+	private void appendHtml(final StringBuilder html, final String title, final List<SpanHotSpot> hotSpots) {
+		html.append("<h2>")
+			.append(title)
+			.append("</h2>\n<table>\n<tr><th>Span</th><th>Count</th><th>Total (ms)</th><th>Mean (ms)</th>")
+			.append("<th>Max (ms)</th><th>Tests</th></tr>\n");
+
+		for (final SpanHotSpot hotSpot : hotSpots) {
+			html.append("<tr><td>")
+				.append(htmlText(hotSpot.getName()))
+				.append("</td><td class=\"n\">")
+				.append(hotSpot.getCount())
+				.append("</td><td class=\"n\">")
+				.append(millis(hotSpot.getTotalDuration()))
+				.append("</td><td class=\"n\">")
+				.append(millis(hotSpot.getMeanDuration()))
+				.append("</td><td class=\"n\">")
+				.append(millis(hotSpot.getMaxDuration()))
+				.append("</td><td>");
+			for (final SpanHotSpot.TestSpans test : hotSpot.getTests(this.testsLimit)) {
+				html.append(htmlText(test.getTest()))
+					.append(" (")
+					.append(test.getCount())
+					.append(" spans, ")
+					.append(millis(test.getTotalDuration()))
+					.append(" ms)<br>");
+			}
+			html.append("</td></tr>\n");
+		}
+
+		html.append("</table>\n");
+	}
+
+	private static String millis(final Duration duration) {
+		return String.format(Locale.ROOT, "%.3f", duration.toNanos() / 1_000_000.0);
+	}
+
+	private static String jsonString(final String value) {
+		final StringBuilder json = new StringBuilder("\"");
+		for (final char c : value.toCharArray()) {
+			switch (c) {
+				case '"' -> json.append("\\\"");
+				case '\\' -> json.append("\\\\");
+				case '\n' -> json.append("\\n");
+				case '\r' -> json.append("\\r");
+				case '\t' -> json.append("\\t");
+				default -> {
+					if (c < 0x20) {
+						json.append(String.format("\\u%04x", (int) c));
+					}
+					else {
+						json.append(c);
+					}
+				}
+			}
+		}
+		return json.append('"').toString();
+	}
+
+	private static String htmlText(final String value) {
+		return value.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+	}
+
+}
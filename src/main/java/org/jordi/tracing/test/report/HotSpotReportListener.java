@@ -0,0 +1,101 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.report;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestPlan;
+
+/**
+ * {@link TestExecutionListener} which writes the {@link SpanHotSpots#suite() suite hot
+ * spots} when the test plan finishes, ranking the slowest and most frequent span names of
+ * all the tracing tests and the tests which produced them.
+ *
+ * <p>
+ * It is registered as a service of the JUnit platform, so it runs with any launcher
+ * (Maven, Gradle, IDEs...). It is configured with the JUnit configuration parameters
+ * (e.g. at {@code junit-platform.properties}):
+ * </p>
+ * <ul>
+ * <li>{@code tracing.test.report.enabled}: whether to record the spans of the tests and
+ * write the reports, {@code false} by default</li>
+ * <li>{@code tracing.test.report.directory}: directory of the reports,
+ * {@code target/tracing-report} by default</li>
+ * <li>{@code tracing.test.report.limit}: max number of span names and tests of each
+ * ranking, {@code 20} by default</li>
+ * </ul>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public class HotSpotReportListener implements TestExecutionListener {
+
+	/**
+	 * Configuration parameter to enable or disable the reports. The spans of the tests are
+	 * only recorded when enabled.
+	 */
+	public static final String ENABLED_PROPERTY = "tracing.test.report.enabled";
+
+	/**
+	 * Configuration parameter of the directory of the reports.
+	 */
+	public static final String DIRECTORY_PROPERTY = "tracing.test.report.directory";
+
+	/**
+	 * Configuration parameter of the max number of entries of each ranking.
+	 */
+	public static final String LIMIT_PROPERTY = "tracing.test.report.limit";
+
+	private static final Log logger = LogFactory.getLog(HotSpotReportListener.class);
+
+	private static final String DEFAULT_DIRECTORY = "target/tracing-report";
+
+	private static final int DEFAULT_LIMIT = 20;
+
+	@Override
+	public void testPlanExecutionStarted(final TestPlan testPlan) {
+		// The same JVM can run several test plans, for instance from an IDE
+		SpanHotSpots.suite().reset();
+	}
+
+	@Override
+	public void testPlanExecutionFinished(final TestPlan testPlan) {
+		final var configuration = testPlan.getConfigurationParameters();
+		final SpanHotSpots hotSpots = SpanHotSpots.suite();
+		if (hotSpots.isEmpty() || !configuration.getBoolean(ENABLED_PROPERTY).orElse(false)) {
+			return;
+		}
+
+		final Path directory = Path.of(configuration.get(DIRECTORY_PROPERTY).orElse(DEFAULT_DIRECTORY));
+		try {
+			hotSpots.writeReports(directory, configuration.get(LIMIT_PROPERTY, Integer::valueOf).orElse(DEFAULT_LIMIT));
+			logger.info("Tracing hot spots report written to " + directory.toAbsolutePath());
+		}
+		catch (final IOException ex) {
+			// The report must not fail the build
+			logger.warn("Could not write the tracing hot spots report to " + directory.toAbsolutePath(), ex);
+		}
+		finally {
+			hotSpots.reset();
+		}
+	}
+
+}
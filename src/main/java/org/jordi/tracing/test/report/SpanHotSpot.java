@@ -0,0 +1,173 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.report;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Aggregated durations of the spans with the same name, across all the tests.
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ * @see SpanHotSpots
+ */
+public final class SpanHotSpot {
+
+	private final String name;
+
+	private final LongAdder count = new LongAdder();
+
+	private final LongAdder totalNanos = new LongAdder();
+
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+	private final Map<String, TestSpans> tests = new ConcurrentHashMap<>();
+
+	SpanHotSpot(final String name) {
+		this.name = name;
+	}
+
+	void record(final String test, final long count, final long totalNanos, final long maxNanos) {
+		this.count.add(count);
+		this.totalNanos.add(totalNanos);
+		this.maxNanos.accumulate(maxNanos);
+		this.tests.computeIfAbsent(test, TestSpans::new).record(count, totalNanos);
+	}
+
+	SpanHotSpot copy() {
+		final SpanHotSpot copy = new SpanHotSpot(this.name);
+		copy.count.add(this.count.sum());
+		copy.totalNanos.add(this.totalNanos.sum());
+		copy.maxNanos.accumulate(this.maxNanos.get());
+		this.tests.forEach((test, testSpans) -> copy.tests.computeIfAbsent(test, TestSpans::new)
+			.record(testSpans.getCount(), testSpans.totalNanos.sum()));
+		return copy;
+	}
+
+	/**
+	 * Returns the span name.
+	 * @return the span name
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Returns the number of spans with the name.
+	 * @return the number of spans
+	 */
+	public long getCount() {
+		return this.count.sum();
+	}
+
+	/**
+	 * Returns the sum of the durations of the spans.
+	 * @return the total duration
+	 */
+	public Duration getTotalDuration() {
+		return Duration.ofNanos(this.totalNanos.sum());
+	}
+
+	/**
+	 * Returns the mean duration of the spans.
+	 * @return the mean duration
+	 */
+	public Duration getMeanDuration() {
+		final long currentCount = this.count.sum();
+		return (currentCount == 0) ? Duration.ZERO : Duration.ofNanos(this.totalNanos.sum() / currentCount);
+	}
+
+	/**
+	 * Returns the duration of the slowest span.
+	 * @return the max duration
+	 */
+	public Duration getMaxDuration() {
+		return Duration.ofNanos(this.maxNanos.get());
+	}
+
+	/**
+	 * Returns the tests which produced the spans, the ones whose spans took longer first.
+	 * @param limit the max number of tests to return
+	 * @return the tests
+	 */
+	public List<TestSpans> getTests(final int limit) {
+		return this.tests.values()
+			.stream()
+			.sorted(Comparator.comparing(TestSpans::getTotalDuration).reversed())
+			.limit(limit)
+			.toList();
+	}
+
+	@Override
+	public String toString() {
+		return this.name + "{count=" + getCount() + ", total=" + getTotalDuration() + ", mean=" + getMeanDuration()
+				+ ", max=" + getMaxDuration() + "}";
+	}
+
+	/**
+	 * Spans with the same name produced by a test.
+	 */
+	public static final class TestSpans {
+
+		private final String test;
+
+		private final LongAdder count = new LongAdder();
+
+		private final LongAdder totalNanos = new LongAdder();
+
+		private TestSpans(final String test) {
+			this.test = test;
+		}
+
+		private void record(final long count, final long totalNanos) {
+			this.count.add(count);
+			this.totalNanos.add(totalNanos);
+		}
+
+		/**
+		 * Returns the test, as {@code TestClass#testMethod}.
+		 * @return the test
+		 */
+		public String getTest() {
+			return this.test;
+		}
+
+		/**
+		 * Returns the number of spans produced by the test.
+		 * @return the number of spans
+		 */
+		public long getCount() {
+			return this.count.sum();
+		}
+
+		/**
+		 * Returns the sum of the durations of the spans produced by the test.
+		 * @return the total duration
+		 */
+		public Duration getTotalDuration() {
+			return Duration.ofNanos(this.totalNanos.sum());
+		}
+
+	}
+
+}
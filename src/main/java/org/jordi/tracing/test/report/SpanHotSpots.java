@@ -0,0 +1,162 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.report;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.micrometer.tracing.exporter.FinishedSpan;
+import org.jordi.tracing.test.collector.FinishedSpans;
+
+/**
+ * Span durations aggregated by span name across the tests, to find out where the code
+ * spends its time.
+ *
+ * <p>
+ * The {@link #suite() suite} instance is fed by the {@code TracingExtension} with the
+ * spans of every test before resetting its collector, and written by the
+ * {@link HotSpotReportListener} when the test plan finishes. Only the aggregated values
+ * are kept, not the spans, and it can be fed concurrently by tests running in parallel.
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public final class SpanHotSpots {
+
+	/**
+	 * Name of the JSON report.
+	 */
+	public static final String JSON_REPORT = "tracing-hotspots.json";
+
+	/**
+	 * Name of the HTML report.
+	 */
+	public static final String HTML_REPORT = "tracing-hotspots.html";
+
+	private static final SpanHotSpots SUITE = new SpanHotSpots();
+
+	private final Map<String, SpanHotSpot> hotSpots = new ConcurrentHashMap<>();
+
+	/**
+	 * Returns the instance shared by all the tests of the test plan.
+	 * @return the suite hot spots
+	 */
+	public static SpanHotSpots suite() {
+		return SUITE;
+	}
+
+	/**
+	 * Records the spans produced by a test.
+	 * @param test the test, as {@code TestClass#testMethod}
+	 * @param spans the finished spans of the test
+	 */
+	public void record(final String test, final Collection<FinishedSpan> spans) {
+		// The spans are grouped first, so each hot spot is updated once per test
+		final Map<String, long[]> byName = new HashMap<>();
+		for (final FinishedSpan span : spans) {
+			final long nanos = FinishedSpans.duration(span).toNanos();
+			final long[] stats = byName.computeIfAbsent(String.valueOf(span.getName()), (name) -> new long[3]);
+			stats[0]++;
+			stats[1] += nanos;
+			stats[2] = Math.max(stats[2], nanos);
+		}
+
+		byName.forEach((name, stats) -> this.hotSpots.computeIfAbsent(name, SpanHotSpot::new)
+			.record(test, stats[0], stats[1], stats[2]));
+	}
+
+	/**
+	 * Returns the span names where most time is spent, adding up all their spans.
+	 * @param limit the max number of span names to return
+	 * @return the hot spots, the slowest first
+	 */
+	public List<SpanHotSpot> getSlowest(final int limit) {
+		return this.sorted(Comparator.comparing(SpanHotSpot::getTotalDuration), limit);
+	}
+
+	/**
+	 * Returns the span names with more spans.
+	 * @param limit the max number of span names to return
+	 * @return the hot spots, the most frequent first
+	 */
+	public List<SpanHotSpot> getMostFrequent(final int limit) {
+		return this.sorted(Comparator.comparingLong(SpanHotSpot::getCount), limit);
+	}
+
+	/**
+	 * Returns whether no span has been recorded.
+	 * @return {@code true} if there are no spans
+	 */
+	public boolean isEmpty() {
+		return this.hotSpots.isEmpty();
+	}
+
+	/**
+	 * Forgets all the recorded spans.
+	 */
+	public void reset() {
+		this.hotSpots.clear();
+	}
+
+	/**
+	 * Returns a copy of the recorded spans, which is not updated by the next records.
+	 * @return the snapshot
+	 * @see #restore(SpanHotSpots)
+	 */
+	public SpanHotSpots snapshot() {
+		final SpanHotSpots snapshot = new SpanHotSpots();
+		this.hotSpots.forEach((name, hotSpot) -> snapshot.hotSpots.put(name, hotSpot.copy()));
+		return snapshot;
+	}
+
+	/**
+	 * Replaces the recorded spans with the ones of a snapshot, forgetting the spans
+	 * recorded since it was taken. Intended for tests which run tests themselves, and
+	 * which must not leave their spans at the {@link #suite() suite}.
+	 * @param snapshot the snapshot to restore
+	 */
+	public void restore(final SpanHotSpots snapshot) {
+		this.hotSpots.clear();
+		snapshot.hotSpots.forEach((name, hotSpot) -> this.hotSpots.put(name, hotSpot.copy()));
+	}
+
+	/**
+	 * Writes the {@link #JSON_REPORT JSON} and {@link #HTML_REPORT HTML} reports.
+	 * @param directory the directory of the reports. It is created if it does not exist.
+	 * @param limit the max number of span names and tests of each ranking
+	 * @throws IOException if the reports can not be written
+	 */
+	public void writeReports(final Path directory, final int limit) throws IOException {
+		final HotSpotReport report = new HotSpotReport(this.getSlowest(limit), this.getMostFrequent(limit), limit);
+		Files.createDirectories(directory);
+		Files.writeString(directory.resolve(JSON_REPORT), report.toJson());
+		Files.writeString(directory.resolve(HTML_REPORT), report.toHtml());
+	}
+
+	private List<SpanHotSpot> sorted(final Comparator<SpanHotSpot> comparator, final int limit) {
+		return this.hotSpots.values().stream().sorted(comparator.reversed()).limit(limit).toList();
+	}
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.simulation;
+
+/**
+ * Handler of the requests received by an endpoint of a {@link SimulatedService}.
+ *
+ * <p>
+ * It is invoked inside the server span of the request, so the spans created by the
+ * handler, and the calls it does to other services, are children of it.
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+@FunctionalInterface
+public interface Endpoint {
+
+	/**
+	 * Handles a request.
+	 * @param request the request
+	 * @return the response body
+	 * @throws Exception if the request fails. The server span is marked as error and
+	 * the caller receives a {@link SimulatedCallException}.
+	 */
+	String handle(SimulatedRequest request) throws Exception;
+
+}
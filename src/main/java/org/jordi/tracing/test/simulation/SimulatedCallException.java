@@ -0,0 +1,66 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.simulation;
+
+/**
+ * Thrown when a call between {@link SimulatedService}s fails at every attempt.
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public class SimulatedCallException extends RuntimeException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final String service;
+
+	private final String endpoint;
+
+	private final int attempts;
+
+	SimulatedCallException(final String service, final String endpoint, final int attempts, final Throwable cause) {
+		super("Call to '" + service + "' endpoint '" + endpoint + "' failed after " + attempts + " attempt(s)", cause);
+		this.service = service;
+		this.endpoint = endpoint;
+		this.attempts = attempts;
+	}
+
+	/**
+	 * Returns the name of the called service.
+	 * @return the service name
+	 */
+	public String getService() {
+		return this.service;
+	}
+
+	/**
+	 * Returns the name of the called endpoint.
+	 * @return the endpoint name
+	 */
+	public String getEndpoint() {
+		return this.endpoint;
+	}
+
+	/**
+	 * Returns the number of attempts done.
+	 * @return the attempts
+	 */
+	public int getAttempts() {
+		return this.attempts;
+	}
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.simulation;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Request sent between two {@link SimulatedService}s, with the headers written by the
+ * propagator of the caller.
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public final class SimulatedRequest {
+
+	private final String caller;
+
+	private final String endpoint;
+
+	private final String body;
+
+	private final Map<String, String> headers;
+
+	private final int attempt;
+
+	SimulatedRequest(final String caller, final String endpoint, final String body, final Map<String, String> headers,
+			final int attempt) {
+		this.caller = caller;
+		this.endpoint = endpoint;
+		this.body = body;
+		this.headers = Collections.unmodifiableMap(headers);
+		this.attempt = attempt;
+	}
+
+	/**
+	 * Returns the name of the service which sent the request.
+	 * @return the caller service name
+	 */
+	public String getCaller() {
+		return this.caller;
+	}
+
+	/**
+	 * Returns the name of the endpoint which receives the request.
+	 * @return the endpoint name
+	 */
+	public String getEndpoint() {
+		return this.endpoint;
+	}
+
+	/**
+	 * Returns the request body.
+	 * @return the body, may be {@code null}
+	 */
+	public String getBody() {
+		return this.body;
+	}
+
+	/**
+	 * Returns the propagation headers of the request.
+	 * @return the headers
+	 */
+	public Map<String, String> getHeaders() {
+		return this.headers;
+	}
+
+	/**
+	 * Returns the attempt of the call this request belongs to, starting at 1.
+	 * @return the attempt
+	 */
+	public int getAttempt() {
+		return this.attempt;
+	}
+
+	@Override
+	public String toString() {
+		return this.caller + " -> " + this.endpoint + " (attempt " + this.attempt + ")";
+	}
+
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.simulation;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.TraceContext;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.jordi.tracing.test.standalone.StandaloneTracing;
+
+/**
+ * Instrumented service of a {@link TraceSimulation}.
+ *
+ * <p>
+ * Every service has its own tracer and propagator, and the calls between services go
+ * through the propagation headers, like they do across the network: the caller creates a
+ * client span and injects it into the request headers, and the callee extracts them and
+ * creates a server span around the {@link Endpoint}.
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public final class SimulatedService {
+
+	/**
+	 * Tag with the attempt of the client spans of the calls with retries.
+	 */
+	public static final String ATTEMPT_TAG = "simulation.attempt";
+
+	private final String name;
+
+	private final TraceSimulation simulation;
+
+	private final StandaloneTracing tracing;
+
+	private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+
+	SimulatedService(final String name, final TraceSimulation simulation, final StandaloneTracing tracing) {
+		this.name = name;
+		this.simulation = simulation;
+		this.tracing = tracing;
+	}
+
+	/**
+	 * Returns the service name.
+	 * @return the service name
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Returns the tracer of the service.
+	 * @return the tracer
+	 */
+	public Tracer getTracer() {
+		return this.tracing.getTracer();
+	}
+
+	/**
+	 * Returns the propagator of the service.
+	 * @return the propagator
+	 */
+	public Propagator getPropagator() {
+		return this.tracing.getPropagator();
+	}
+
+	/**
+	 * Registers an endpoint of the service.
+	 * @param endpointName the endpoint name, used as name of the client and server spans
+	 * @param endpoint the endpoint handler
+	 * @return this service
+	 */
+	public SimulatedService endpoint(final String endpointName, final Endpoint endpoint) {
+		this.endpoints.put(endpointName, endpoint);
+		return this;
+	}
+
+	/**
+	 * Calls an endpoint of another service, from the current span.
+	 * @param service the called service name
+	 * @param endpointName the called endpoint name
+	 * @return the response body
+	 * @throws SimulatedCallException if the call fails
+	 */
+	public String call(final String service, final String endpointName) {
+		return this.call(service, endpointName, null, 1);
+	}
+
+	/**
+	 * Calls an endpoint of another service, from the current span.
+	 * @param service the called service name
+	 * @param endpointName the called endpoint name
+	 * @param body the request body
+	 * @return the response body
+	 * @throws SimulatedCallException if the call fails
+	 */
+	public String call(final String service, final String endpointName, final String body) {
+		return this.call(service, endpointName, body, 1);
+	}
+
+	/**
+	 * Calls an endpoint of another service, from the current span, retrying it when it
+	 * fails. Every attempt has its own client span, tagged with {@link #ATTEMPT_TAG}.
+	 * @param service the called service name
+	 * @param endpointName the called endpoint name
+	 * @param body the request body
+	 * @param maxAttempts the maximum number of attempts
+	 * @return the response body
+	 * @throws SimulatedCallException if all the attempts fail or the thread is
+	 * interrupted, which stops the retries and keeps the interrupt status
+	 */
+	public String call(final String service, final String endpointName, final String body, final int maxAttempts) {
+		final SimulatedService target = this.simulation.getService(service);
+		final Endpoint endpoint = target.getEndpoint(endpointName);
+
+		Exception failure = null;
+		for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+			final Span span = this.clientSpan(service, endpointName);
+			if (maxAttempts > 1) {
+				span.tag(ATTEMPT_TAG, attempt);
+			}
+
+			try (var spanInScope = this.getTracer().withSpan(span)) {
+				final Map<String, String> headers = new HashMap<>();
+				this.getPropagator().inject(span.context(), headers, Map::put);
+
+				this.simulation.transmit();
+				final String response = target
+					.receive(new SimulatedRequest(this.name, endpointName, body, headers, attempt), endpoint);
+				this.simulation.transmit();
+				return response;
+			}
+			catch (final InterruptedException ex) {
+				// The call is not retried, the thread has been asked to stop
+				Thread.currentThread().interrupt();
+				span.error(ex);
+				throw new SimulatedCallException(service, endpointName, attempt, ex);
+			}
+			catch (final Exception ex) {
+				span.error(ex);
+				failure = ex;
+			}
+			finally {
+				span.end();
+			}
+		}
+
+		throw new SimulatedCallException(service, endpointName, maxAttempts, failure);
+	}
+
+	/**
+	 * Calls an endpoint of another service at another thread, from the current span. It
+	 * allows to simulate fan-out calls.
+	 * @param service the called service name
+	 * @param endpointName the called endpoint name
+	 * @param body the request body
+	 * @return the response body, completed exceptionally with a
+	 * {@link SimulatedCallException} if the call fails
+	 */
+	public CompletableFuture<String> callAsync(final String service, final String endpointName, final String body) {
+		return CompletableFuture.supplyAsync(() -> this.call(service, endpointName, body),
+				this.getTracer().currentTraceContext().wrap(this.simulation.executor()));
+	}
+
+	Endpoint getEndpoint(final String endpointName) {
+		final Endpoint endpoint = this.endpoints.get(endpointName);
+		if (endpoint == null) {
+			throw new IllegalArgumentException("Service '" + this.name + "' has no endpoint '" + endpointName
+					+ "'. Endpoints: " + this.endpoints.keySet());
+		}
+		return endpoint;
+	}
+
+	void close() {
+		this.tracing.close();
+	}
+
+	private Span clientSpan(final String service, final String endpointName) {
+		final Span.Builder builder = this.getTracer()
+			.spanBuilder()
+			.name(endpointName)
+			.kind(Span.Kind.CLIENT)
+			.remoteServiceName(service);
+
+		final TraceContext parent = this.getTracer().currentTraceContext().context();
+		return ((parent != null) ? builder.setParent(parent) : builder.setNoParent()).start();
+	}
+
+	private String receive(final SimulatedRequest request, final Endpoint endpoint) throws Exception {
+		final Span span = this.getPropagator()
+			.extract(request.getHeaders(), Map::get)
+			.name(request.getEndpoint())
+			.kind(Span.Kind.SERVER)
+			.remoteServiceName(request.getCaller())
+			.start();
+
+		try (var spanInScope = this.getTracer().withSpan(span)) {
+			return endpoint.handle(request);
+		}
+		catch (final Exception ex) {
+			span.error(ex);
+			throw ex;
+		}
+		finally {
+			span.end();
+		}
+	}
+
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.simulation;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import io.micrometer.tracing.exporter.FinishedSpan;
+import org.jordi.tracing.test.collector.AbstractSpanCollector;
+import org.jordi.tracing.test.collector.SpanCollector;
+import org.jordi.tracing.test.collector.SpanListener;
+import org.jordi.tracing.test.collector.UnfinishedSpan;
+import org.jordi.tracing.test.collector.UnfinishedSpansTracking;
+
+/**
+ * {@link SpanCollector} which merges the spans collected by each simulated service.
+ *
+ * <p>
+ * Every service collects its own spans, so closing one of them does not discard the
+ * spans of the rest. The collectors of the services are closed by the services
+ * themselves.
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+final class SimulationSpanCollector extends AbstractSpanCollector {
+
+	private final List<SpanCollector> spanCollectors = new CopyOnWriteArrayList<>();
+
+	private final SpanListener forwardingListener = new SpanListener() {
+
+		@Override
+		public void onSpanStarted(final String traceId, final String spanId) {
+			if (SimulationSpanCollector.this.hasSpanListeners()) {
+				SimulationSpanCollector.this.publishStart(traceId, spanId);
+			}
+		}
+
+		@Override
+		public void onSpanFinished(final FinishedSpan span) {
+			if (SimulationSpanCollector.this.hasSpanListeners()) {
+				SimulationSpanCollector.this.publish(span);
+			}
+		}
+
+	};
+
+	private volatile UnfinishedSpansTracking unfinishedSpansTracking = UnfinishedSpansTracking.SPANS;
+
+	void add(final SpanCollector spanCollector) {
+		spanCollector.trackUnfinishedSpans(this.unfinishedSpansTracking);
+		spanCollector.addSpanListener(this.forwardingListener);
+		this.spanCollectors.add(spanCollector);
+	}
+
+	@Override
+	public List<FinishedSpan> getFinishedSpans() {
+		// Each service keeps the end order of its own spans, so they are merged by end
+		return this.spanCollectors.stream()
+			.flatMap((spanCollector) -> spanCollector.getFinishedSpans().stream())
+			.sorted(Comparator.comparing(FinishedSpan::getEndTimestamp))
+			.toList();
+	}
+
+	@Override
+	public List<UnfinishedSpan> getUnfinishedSpans() {
+		return this.spanCollectors.stream()
+			.flatMap((spanCollector) -> spanCollector.getUnfinishedSpans().stream())
+			.toList();
+	}
+
+	@Override
+	public void trackUnfinishedSpans(final UnfinishedSpansTracking tracking) {
+		this.unfinishedSpansTracking = tracking;
+		this.spanCollectors.forEach((spanCollector) -> spanCollector.trackUnfinishedSpans(tracking));
+	}
+
+	@Override
+	protected void doReset() {
+		this.spanCollectors.forEach(SpanCollector::reset);
+	}
+
+	@Override
+	public void close() {
+		this.spanCollectors.forEach((spanCollector) -> spanCollector.removeSpanListener(this.forwardingListener));
+	}
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.simulation;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.jordi.tracing.test.TracingProvider;
+import org.jordi.tracing.test.collector.SpanCollector;
+import org.jordi.tracing.test.standalone.StandaloneTracing;
+
+/**
+ * Several instrumented services running in the same JVM, which call each other through
+ * an in-memory channel with real header propagation.
+ *
+ * <p>
+ * Each service has its own tracing components, and the spans of all of them are
+ * available from the same {@link SpanCollector}, so the distributed traces can be
+ * asserted end to end, including the latency between services, fan-out calls and
+ * retries:
+ *
+ * <pre>
+ * try (TraceSimulation simulation = TraceSimulation.create(TracingProvider.OTEL)) {
+ *
+ *   final SimulatedService orders = simulation.service("orders");
+ *   simulation.service("stock").endpoint("reserve", (request) -&gt; "reserved");
+ *   orders.endpoint("create", (request) -&gt; orders.call("stock", "reserve"));
+ *
+ *   simulation.service("gateway").call("orders", "create");
+ *
+ *   TracingAssertions.assertThat(simulation.getSpanCollector().getFinishedSpans())
+ *     .hasNumberOfSpansEqualTo(4);
+ * }
+ * </pre>
+ *
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public final class TraceSimulation implements AutoCloseable {
+
+	private static final AtomicInteger threadCounter = new AtomicInteger();
+
+	private final SimulationSpanCollector spanCollector = new SimulationSpanCollector();
+
+	private final Function<String, StandaloneTracing> serviceTracingFactory;
+
+	private final Map<String, SimulatedService> services = new ConcurrentHashMap<>();
+
+	private final ExecutorService executor = Executors.newCachedThreadPool((runnable) -> {
+		final Thread thread = new Thread(runnable, "trace-simulation-" + threadCounter.incrementAndGet());
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	private volatile Duration networkLatency = Duration.ZERO;
+
+	private TraceSimulation(final Function<String, StandaloneTracing> serviceTracingFactory) {
+		this.serviceTracingFactory = serviceTracingFactory;
+	}
+
+	/**
+	 * Creates a simulation whose services use the given provider.
+	 * @param provider the tracing provider
+	 * @return the simulation
+	 */
+	public static TraceSimulation create(final TracingProvider provider) {
+		return create(provider, List.of());
+	}
+
+	/**
+	 * Creates a simulation whose services use the given provider.
+	 * @param provider the tracing provider
+	 * @param remoteBaggageFields the baggage fields propagated as their own header
+	 * @return the simulation
+	 */
+	public static TraceSimulation create(final TracingProvider provider, final List<String> remoteBaggageFields) {
+		return new TraceSimulation((service) -> StandaloneTracing.builder(provider)
+			.serviceName(service)
+			.remoteBaggageFields(remoteBaggageFields)
+			.build());
+	}
+
+	/**
+	 * Returns the service with the given name, creating it if it does not exist.
+	 * @param name the service name
+	 * @return the service
+	 */
+	public SimulatedService service(final String name) {
+		return this.services.computeIfAbsent(name, (serviceName) -> {
+			final StandaloneTracing tracing = this.serviceTracingFactory.apply(serviceName);
+			this.spanCollector.add(tracing.getSpanCollector());
+			return new SimulatedService(serviceName, this, tracing);
+		});
+	}
+
+	/**
+	 * Sets the latency of every request and response between services. There is no
+	 * latency by default.
+	 * @param networkLatency the latency of each message
+	 * @return this simulation
+	 */
+	public TraceSimulation networkLatency(final Duration networkLatency) {
+		this.networkLatency = networkLatency;
+		return this;
+	}
+
+	/**
+	 * Returns the {@link SpanCollector} which collects the spans of all the services.
+	 * @return the span collector
+	 */
+	public SpanCollector getSpanCollector() {
+		return this.spanCollector;
+	}
+
+	@Override
+	public void close() {
+		this.executor.shutdownNow();
+		this.services.values().forEach(SimulatedService::close);
+	}
+
+	SimulatedService getService(final String name) {
+		final SimulatedService service = this.services.get(name);
+		if (service == null) {
+			throw new IllegalArgumentException(
+					"There is no service '" + name + "'. Services: " + this.services.keySet());
+		}
+		return service;
+	}
+
+	ExecutorService executor() {
+		return this.executor;
+	}
+
+	void transmit() throws InterruptedException {
+		final Duration latency = this.networkLatency;
+		if (!latency.isZero()) {
+			Thread.sleep(latency.toMillis(), latency.toNanosPart() % 1_000_000);
+		}
+	}
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.standalone;
+
+import java.util.List;
+
+import brave.Tracing;
+import brave.baggage.BaggageField;
+import brave.baggage.BaggagePropagation;
+import brave.baggage.BaggagePropagationConfig.SingleBaggageField;
+import brave.propagation.B3Propagation;
+import brave.propagation.ThreadLocalCurrentTraceContext;
+import brave.sampler.Sampler;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.brave.bridge.BraveBaggageManager;
+import io.micrometer.tracing.brave.bridge.BraveCurrentTraceContext;
+import io.micrometer.tracing.brave.bridge.BravePropagator;
+import io.micrometer.tracing.brave.bridge.BraveTracer;
+import io.micrometer.tracing.brave.bridge.W3CPropagation;
+import io.micrometer.tracing.propagation.Propagator;
+import org.jordi.tracing.test.clock.VirtualClock;
+import org.jordi.tracing.test.clock.brave.VirtualClockSpanHandler;
+import org.jordi.tracing.test.collector.SpanCollector;
+import org.jordi.tracing.test.collector.brave.BraveInMemorySpanHandlerCollector;
+import org.jordi.tracing.test.collector.brave.InMemorySpanHandler;
+
+/**
+ * {@link StandaloneTracing} for brave implementation.
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public final class BraveStandaloneTracing implements StandaloneTracing {
+
+	private final Tracing tracing;
+
+	private final Tracer tracer;
+
+	private final Propagator propagator;
+
+	private final SpanCollector spanCollector;
+
+	private BraveStandaloneTracing(final Tracing tracing, final Tracer tracer, final Propagator propagator,
+			final SpanCollector spanCollector) {
+		this.tracing = tracing;
+		this.tracer = tracer;
+		this.propagator = propagator;
+		this.spanCollector = spanCollector;
+	}
+
+	/**
+	 * Creates the brave tracing components, propagating the trace context as W3C and B3
+	 * and the baggage as W3C baggage and one header per remote field.
+	 * @param serviceName the local service name of the spans or {@code null}
+	 * @param remoteBaggageFields the baggage fields propagated as their own header
+	 * @param virtualClock the clock of the spans or {@code null} to use the system clock
+	 * @param recordThreadUsage whether to record the {@code ThreadUsage} of the spans
+	 * @return the tracing components
+	 * @see StandaloneTracing#builder(org.jordi.tracing.test.TracingProvider)
+	 */
+	static BraveStandaloneTracing create(final String serviceName, final List<String> remoteBaggageFields,
+			final VirtualClock virtualClock, final boolean recordThreadUsage) {
+		final Tracing.Builder builder = Tracing.newBuilder();
+		if (serviceName != null) {
+			builder.localServiceName(serviceName);
+		}
+		if (virtualClock != null) {
+			new VirtualClockSpanHandler(virtualClock).addTo(builder);
+		}
+		return create(builder, remoteBaggageFields, new InMemorySpanHandler(recordThreadUsage));
+	}
+
+	private static BraveStandaloneTracing create(final Tracing.Builder builder, final List<String> remoteBaggageFields,
+			final InMemorySpanHandler spanHandler) {
+		final BraveBaggageManager baggageManager = new BraveBaggageManager();
+
+		final var propagationFactoryBuilder = BaggagePropagation.newFactoryBuilder(new CompositePropagationFactory(
+				List.of(new W3CPropagation(baggageManager, List.of()), B3Propagation.newFactoryBuilder()
+					.injectFormat(B3Propagation.Format.SINGLE_NO_PARENT)
+					.build())));
+		remoteBaggageFields.forEach(
+				(field) -> propagationFactoryBuilder.add(SingleBaggageField.remote(BaggageField.create(field))));
+
+		final Tracing tracing = builder.currentTraceContext(ThreadLocalCurrentTraceContext.create())
+			.propagationFactory(propagationFactoryBuilder.build())
+			.sampler(Sampler.ALWAYS_SAMPLE)
+			.traceId128Bit(true)
+			.supportsJoin(false)
+			.addSpanHandler(spanHandler)
+			.build();
+
+		final Tracer tracer = new BraveTracer(tracing.tracer(),
+				new BraveCurrentTraceContext(tracing.currentTraceContext()), baggageManager);
+
+		return new BraveStandaloneTracing(tracing, tracer, new BravePropagator(tracing),
+				new BraveInMemorySpanHandlerCollector(spanHandler));
+	}
+
+	@Override
+	public Tracer getTracer() {
+		return this.tracer;
+	}
+
+	@Override
+	public Propagator getPropagator() {
+		return this.propagator;
+	}
+
+	@Override
+	public SpanCollector getSpanCollector() {
+		return this.spanCollector;
+	}
+
+	@Override
+	public void close() {
+		this.spanCollector.close();
+		this.tracing.close();
+	}
+
+}
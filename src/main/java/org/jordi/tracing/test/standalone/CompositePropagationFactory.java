@@ -0,0 +1,122 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.standalone;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+import brave.propagation.Propagation;
+import brave.propagation.TraceContext;
+import brave.propagation.TraceContextOrSamplingFlags;
+
+/**
+ * Brave {@link Propagation.Factory} which injects the trace context in several formats
+ * and extracts it from the first format present at the request.
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+final class CompositePropagationFactory extends Propagation.Factory {
+
+	private final List<Propagation.Factory> factories;
+
+	private final Propagation<String> propagation;
+
+	CompositePropagationFactory(final List<Propagation.Factory> factories) {
+		this.factories = List.copyOf(factories);
+		this.propagation = new CompositePropagation<>(this.factories, Propagation.Factory::get);
+	}
+
+	/**
+	 * Composes the key typed propagation of every format, for the callers which still use
+	 * the deprecated Brave API.
+	 */
+	@Override
+	@Deprecated
+	public <K> Propagation<K> create(final Propagation.KeyFactory<K> keyFactory) {
+		return new CompositePropagation<>(this.factories, (factory) -> factory.create(keyFactory));
+	}
+
+	@Override
+	public Propagation<String> get() {
+		return this.propagation;
+	}
+
+	@Override
+	public boolean supportsJoin() {
+		return false;
+	}
+
+	@Override
+	public boolean requires128BitTraceId() {
+		return true;
+	}
+
+	private static final class CompositePropagation<K> implements Propagation<K> {
+
+		private final List<Propagation<K>> propagations;
+
+		private final List<K> keys;
+
+		CompositePropagation(final List<Propagation.Factory> factories,
+				final Function<Propagation.Factory, Propagation<K>> create) {
+			this.propagations = factories.stream().map(create).toList();
+
+			final Set<K> keys = new LinkedHashSet<>();
+			this.propagations.forEach((propagation) -> keys.addAll(propagation.keys()));
+			this.keys = List.copyOf(keys);
+		}
+
+		@Override
+		public List<K> keys() {
+			return this.keys;
+		}
+
+		@Override
+		public <R> TraceContext.Injector<R> injector(final Setter<R, K> setter) {
+			final List<TraceContext.Injector<R>> injectors = new ArrayList<>(this.propagations.size());
+			this.propagations.forEach((propagation) -> injectors.add(propagation.injector(setter)));
+
+			return (traceContext, request) -> {
+				for (final TraceContext.Injector<R> injector : injectors) {
+					injector.inject(traceContext, request);
+				}
+			};
+		}
+
+		@Override
+		public <R> TraceContext.Extractor<R> extractor(final Getter<R, K> getter) {
+			final List<TraceContext.Extractor<R>> extractors = new ArrayList<>(this.propagations.size());
+			this.propagations.forEach((propagation) -> extractors.add(propagation.extractor(getter)));
+
+			return (request) -> {
+				for (final TraceContext.Extractor<R> extractor : extractors) {
+					final TraceContextOrSamplingFlags extracted = extractor.extract(request);
+					if (!TraceContextOrSamplingFlags.EMPTY.equals(extracted)) {
+						return extracted;
+					}
+				}
+				return TraceContextOrSamplingFlags.EMPTY;
+			};
+		}
+
+	}
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.standalone;
+
+import java.util.List;
+
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.otel.bridge.OtelBaggageManager;
+import io.micrometer.tracing.otel.bridge.OtelCurrentTraceContext;
+import io.micrometer.tracing.otel.bridge.OtelPropagator;
+import io.micrometer.tracing.otel.bridge.OtelTracer;
+import io.micrometer.tracing.otel.propagation.BaggageTextMapPropagator;
+import io.micrometer.tracing.propagation.Propagator;
+import io.opentelemetry.api.baggage.propagation.W3CBaggagePropagator;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.propagation.W3CTraceContextPropagator;
+import io.opentelemetry.context.propagation.ContextPropagators;
+import io.opentelemetry.context.propagation.TextMapPropagator;
+import io.opentelemetry.extension.trace.propagation.B3Propagator;
+import io.opentelemetry.sdk.resources.Resource;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.SdkTracerProviderBuilder;
+import io.opentelemetry.sdk.trace.samplers.Sampler;
+import org.jordi.tracing.test.clock.VirtualClock;
+import org.jordi.tracing.test.clock.otel.OtelVirtualClock;
+import org.jordi.tracing.test.collector.SpanCollector;
+import org.jordi.tracing.test.collector.otel.CollectingSpanProcessor;
+import org.jordi.tracing.test.collector.otel.OtelSpanProcessorCollector;
+
+/**
+ * {@link StandaloneTracing} for otel implementation.
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public final class OtelStandaloneTracing implements StandaloneTracing {
+
+	private static final String INSTRUMENTATION_SCOPE = "org.jordi.tracing.test";
+
+	private static final AttributeKey<String> SERVICE_NAME_ATTRIBUTE = AttributeKey.stringKey("service.name");
+
+	private final SdkTracerProvider sdkTracerProvider;
+
+	private final Tracer tracer;
+
+	private final Propagator propagator;
+
+	private final SpanCollector spanCollector;
+
+	private OtelStandaloneTracing(final SdkTracerProvider sdkTracerProvider, final Tracer tracer,
+			final Propagator propagator, final SpanCollector spanCollector) {
+		this.sdkTracerProvider = sdkTracerProvider;
+		this.tracer = tracer;
+		this.propagator = propagator;
+		this.spanCollector = spanCollector;
+	}
+
+	/**
+	 * Creates the otel tracing components, propagating the trace context as W3C and B3
+	 * and the baggage as W3C baggage and one header per remote field.
+	 * @param serviceName the service name of the spans or {@code null}
+	 * @param remoteBaggageFields the baggage fields propagated as their own header
+	 * @param virtualClock the clock of the spans or {@code null} to use the system clock
+	 * @param recordThreadUsage whether to record the {@code ThreadUsage} of the spans
+	 * @return the tracing components
+	 * @see StandaloneTracing#builder(org.jordi.tracing.test.TracingProvider)
+	 */
+	static OtelStandaloneTracing create(final String serviceName, final List<String> remoteBaggageFields,
+			final VirtualClock virtualClock, final boolean recordThreadUsage) {
+		final SdkTracerProviderBuilder builder = SdkTracerProvider.builder();
+		if (serviceName != null) {
+			builder.setResource(Resource.getDefault()
+				.merge(Resource.create(Attributes.of(SERVICE_NAME_ATTRIBUTE, serviceName))));
+		}
+		if (virtualClock != null) {
+			builder.setClock(new OtelVirtualClock(virtualClock));
+		}
+		return create(builder, remoteBaggageFields, new CollectingSpanProcessor(recordThreadUsage));
+	}
+
+	private static OtelStandaloneTracing create(final SdkTracerProviderBuilder builder,
+			final List<String> remoteBaggageFields, final CollectingSpanProcessor spanProcessor) {
+		final SdkTracerProvider sdkTracerProvider = builder.setSampler(Sampler.alwaysOn())
+			.addSpanProcessor(spanProcessor)
+			.build();
+
+		final var otelTracer = sdkTracerProvider.get(INSTRUMENTATION_SCOPE);
+		final var currentTraceContext = new OtelCurrentTraceContext();
+		final var baggageManager = new OtelBaggageManager(currentTraceContext, remoteBaggageFields, List.of());
+		final var contextPropagators = ContextPropagators.create(
+				TextMapPropagator.composite(W3CTraceContextPropagator.getInstance(), W3CBaggagePropagator.getInstance(),
+						B3Propagator.injectingSingleHeader(),
+						new BaggageTextMapPropagator(remoteBaggageFields, baggageManager)));
+
+		final Tracer tracer = new OtelTracer(otelTracer, currentTraceContext, (event) -> {
+		}, baggageManager);
+
+		return new OtelStandaloneTracing(sdkTracerProvider, tracer, new OtelPropagator(contextPropagators, otelTracer),
+				new OtelSpanProcessorCollector(spanProcessor));
+	}
+
+	@Override
+	public Tracer getTracer() {
+		return this.tracer;
+	}
+
+	@Override
+	public Propagator getPropagator() {
+		return this.propagator;
+	}
+
+	@Override
+	public SpanCollector getSpanCollector() {
+		return this.spanCollector;
+	}
+
+	@Override
+	public void close() {
+		this.spanCollector.close();
+		this.sdkTracerProvider.close();
+	}
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.tracing.test.standalone;
+
+import java.util.List;
+import java.util.Objects;
+
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.jordi.tracing.test.TracingProvider;
+import org.jordi.tracing.test.clock.VirtualClock;
+import org.jordi.tracing.test.collector.SpanCollector;
+
+/**
+ * Tracing components built without a Spring {@code ApplicationContext}.
+ *
+ * <p>
+ * The trace context is propagated as W3C and B3, and the baggage as W3C baggage and one
+ * header per remote baggage field, like Spring Boot does.
+ * </p>
+ *
+ * @author Jordi Martinez Vicent
+ * @since 1.0.0
+ */
+public interface StandaloneTracing extends AutoCloseable {
+
+	/**
+	 * Returns the tracer.
+	 * @return the tracer
+	 */
+	Tracer getTracer();
+
+	/**
+	 * Returns the propagator.
+	 * @return the propagator
+	 */
+	Propagator getPropagator();
+
+	/**
+	 * Returns the {@link SpanCollector} which collects the spans created with the
+	 * tracer.
+	 * @return the span collector
+	 */
+	SpanCollector getSpanCollector();
+
+	/**
+	 * Closes the tracing components, releasing any resources.
+	 */
+	@Override
+	void close();
+
+	/**
+	 * Creates the tracing components of the given provider, with the default settings of
+	 * the {@link #builder(TracingProvider) builder}.
+	 * @param provider the tracing provider
+	 * @return the tracing components
+	 */
+	static StandaloneTracing create(final TracingProvider provider) {
+		return builder(provider).build();
+	}
+
+	/**
+	 * Returns a builder of the tracing components of the given provider.
+	 * @param provider the tracing provider
+	 * @return the builder
+	 */
+	static Builder builder(final TracingProvider provider) {
+		return new Builder(provider);
+	}
+
+	/**
+	 * Builder of the {@link StandaloneTracing} components. By default, the spans have no
+	 * service name, no baggage field is propagated as its own header, the spans take
+	 * their timestamps from the system clock and the thread usage is not recorded.
+	 */
+	final class Builder {
+
+		private final TracingProvider provider;
+
+		private String serviceName;
+
+		private List<String> remoteBaggageFields = List.of();
+
+		private VirtualClock virtualClock;
+
+		private boolean recordThreadUsage;
+
+		private Builder(final TracingProvider provider) {
+			this.provider = Objects.requireNonNull(provider, "provider");
+		}
+
+		/**
+		 * Sets the service name of the spans.
+		 * @param serviceName the service name
+		 * @return this builder
+		 */
+		public Builder serviceName(final String serviceName) {
+			this.serviceName = serviceName;
+			return this;
+		}
+
+		/**
+		 * Sets the baggage fields propagated as their own header.
+		 * @param remoteBaggageFields the remote baggage fields
+		 * @return this builder
+		 */
+		public Builder remoteBaggageFields(final List<String> remoteBaggageFields) {
+			this.remoteBaggageFields = List.copyOf(remoteBaggageFields);
+			return this;
+		}
+
+		/**
+		 * Sets the clock the spans take their timestamps from.
+		 * @param virtualClock the clock of the spans or {@code null} to use the system
+		 * clock
+		 * @return this builder
+		 */
+		public Builder virtualClock(final VirtualClock virtualClock) {
+			this.virtualClock = virtualClock;
+			return this;
+		}
+
+		/**
+		 * Sets whether to record the CPU time and allocated bytes of the thread of each
+		 * span as its {@code ThreadUsage} tags.
+		 * @param recordThreadUsage whether to record the thread usage
+		 * @return this builder
+		 */
+		public Builder recordThreadUsage(final boolean recordThreadUsage) {
+			this.recordThreadUsage = recordThreadUsage;
+			return this;
+		}
+
+		/**
+		 * Builds the tracing components.
+		 * @return the tracing components
+		 */
+		public StandaloneTracing build() {
+			return switch (this.provider) {
+				case BRAVE -> BraveStandaloneTracing.create(this.serviceName, this.remoteBaggageFields,
+						this.virtualClock, this.recordThreadUsage);
+				case OTEL -> OtelStandaloneTracing.create(this.serviceName, this.remoteBaggageFields,
+						this.virtualClock, this.recordThreadUsage);
+			};
+		}
+
+	}
+
+}
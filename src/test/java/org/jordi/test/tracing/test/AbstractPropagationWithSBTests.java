@@ -0,0 +1,82 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.test.tracing.test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import io.micrometer.tracing.BaggageInScope;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.jordi.tracing.test.extension.TestPropagator;
+import org.jordi.tracing.test.extension.TestTracer;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of the propagation of {@code @TracingTest(propagation = { "W3C", "B3" })} run
+ * with every provider. The subclasses annotate them with the provider.
+ */
+abstract class AbstractPropagationWithSBTests {
+
+	@TestTracer
+	private Tracer tracer;
+
+	@TestPropagator
+	private Propagator propagator;
+
+	@Test
+	void injectsEveryRequestedFormat() {
+		final Span span = this.tracer.nextSpan().name("client").start();
+		final Map<String, String> headers = new HashMap<>();
+
+		try (var spanInScope = this.tracer.withSpan(span);
+				BaggageInScope baggage = this.tracer.createBaggageInScope("tenant", "acme")) {
+			this.propagator.inject(span.context(), headers, Map::put);
+		}
+		finally {
+			span.end();
+		}
+
+		assertThat(headers).containsKeys("traceparent", "b3").containsEntry("tenant", "acme");
+		assertThat(headers.get("traceparent")).contains(span.context().traceId());
+		assertThat(headers.get("b3")).startsWith(span.context().traceId());
+	}
+
+	@Test
+	void extractsAnyOfTheRequestedFormats() {
+		final Span span = this.tracer.nextSpan().name("client").start();
+		final Map<String, String> headers = new HashMap<>();
+		this.propagator.inject(span.context(), headers, Map::put);
+		span.end();
+
+		final Span fromB3 = this.propagator.extract(Map.of("b3", headers.get("b3")), Map::get).name("server").start();
+		fromB3.end();
+
+		assertThat(fromB3.context().traceId()).isEqualTo(span.context().traceId());
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	static class PropagationTestConfig {
+
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.test.tracing.test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import io.micrometer.tracing.test.simple.TracingAssertions;
+import org.jordi.tracing.test.collector.SpanCollector;
+import org.jordi.tracing.test.extension.Spans;
+import org.jordi.tracing.test.extension.TestPropagator;
+import org.jordi.tracing.test.extension.TestTracer;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests run by {@code @StandaloneTracingTest} with every provider. The subclasses
+ * annotate them with the provider and add the tests of its own collector.
+ */
+abstract class AbstractStandaloneTracingTests {
+
+	@Spans
+	protected SpanCollector spanCollector;
+
+	@TestTracer
+	protected Tracer tracer;
+
+	@TestPropagator
+	private Propagator propagator;
+
+	@Test
+	void smoke() {
+		final Span rootSpan = this.tracer.nextSpan().name("rootSpan");
+
+		try (var spanInScope = this.tracer.withSpan(rootSpan.start())) {
+			// Do something in span
+		}
+		finally {
+			rootSpan.end();
+		}
+
+		TracingAssertions.assertThat(this.spanCollector.getFinishedSpans())
+			.hasNumberOfSpansEqualTo(1)
+			.hasASpanWithName("rootSpan");
+
+	}
+
+	@Test
+	void assertTags() {
+		final Span rootSpan = this.tracer.nextSpan().name("rootSpan").tag("tag", "tag-value");
+
+		try (var spanInScope = this.tracer.withSpan(rootSpan.start())) {
+			// Do something in span
+		}
+		finally {
+			rootSpan.end();
+		}
+
+		TracingAssertions.assertThat(this.spanCollector.getFinishedSpans())
+			.hasNumberOfSpansEqualTo(1)
+			.assertThatASpanWithNameEqualTo("rootSpan")
+			.hasTag("tag", "tag-value");
+	}
+
+	@Test
+	void tracksUnfinishedSpans() {
+		final Span span = this.tracer.nextSpan().name("unfinished").start();
+
+		assertThat(this.spanCollector.getUnfinishedSpans()).singleElement().satisfies((unfinishedSpan) -> {
+			assertThat(unfinishedSpan.getName()).isEqualTo("unfinished");
+			assertThat(unfinishedSpan.getSpanId()).isEqualTo(span.context().spanId());
+			assertThat(unfinishedSpan.getStartStackTrace()[0].getClassName())
+				.isEqualTo(AbstractStandaloneTracingTests.class.getName());
+		});
+
+		span.end();
+
+		assertThat(this.spanCollector.getUnfinishedSpans()).isEmpty();
+	}
+
+	@Test
+	void collectsSpansEndedAtSeveralThreads() {
+		final int threads = 4;
+		final int spansPerThread = 100;
+
+		CompletableFuture.allOf(IntStream.range(0, threads).mapToObj((thread) -> CompletableFuture.runAsync(() -> {
+			for (int i = 0; i < spansPerThread; i++) {
+				this.tracer.nextSpan().name("span-" + thread).start().end();
+			}
+		})).toArray(CompletableFuture[]::new)).join();
+
+		assertThat(this.spanCollector.getFinishedSpans()).hasSize(threads * spansPerThread);
+	}
+
+	@Test
+	void propagatesW3cB3AndBaggage() {
+		final Span client = this.tracer.nextSpan().name("client").start();
+		final Map<String, String> headers = new HashMap<>();
+
+		try (var spanInScope = this.tracer.withSpan(client);
+				var baggageInScope = this.tracer.createBaggageInScope("tenant", "acme")) {
+			this.propagator.inject(client.context(), headers, Map::put);
+		}
+		finally {
+			client.end();
+		}
+
+		assertThat(headers).containsKeys("traceparent", "b3", "baggage").containsEntry("tenant", "acme");
+
+		headers.remove("traceparent");
+		final Span server = this.propagator.extract(headers, Map::get).name("server").start();
+
+		try (var spanInScope = this.tracer.withSpan(server)) {
+			assertThat(server.context().traceId()).isEqualTo(client.context().traceId());
+			assertThat(this.tracer.getBaggage("tenant").get()).isEqualTo("acme");
+		}
+		finally {
+			server.end();
+		}
+	}
+
+}
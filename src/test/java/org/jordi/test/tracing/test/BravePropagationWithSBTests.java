@@ -0,0 +1,32 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.test.tracing.test;
+
+import org.jordi.tracing.test.TracingTest;
+
+import org.springframework.boot.actuate.autoconfigure.tracing.OpenTelemetryAutoConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+
+@SpringBootTest(classes = AbstractPropagationWithSBTests.PropagationTestConfig.class,
+		properties = "tracing.provider=brave")
+@TracingTest(propagation = { "W3C", "B3" }, baggage = "tenant")
+// The project has both providers, so the one not under test is excluded
+@EnableAutoConfiguration(exclude = OpenTelemetryAutoConfiguration.class)
+class BravePropagationWithSBTests extends AbstractPropagationWithSBTests {
+
+}
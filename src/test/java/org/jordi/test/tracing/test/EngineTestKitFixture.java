@@ -0,0 +1,60 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.test.tracing.test;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.junit.jupiter.api.extension.ConditionEvaluationResult;
+import org.junit.jupiter.api.extension.ExecutionCondition;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.testkit.engine.EngineTestKit;
+
+/**
+ * Marks a test class whose tests are run by other tests with the {@link EngineTestKit},
+ * usually because they are expected to fail. It is disabled when it is run by the build
+ * or an IDE by itself.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(EngineTestKitFixture.Condition.class)
+@interface EngineTestKitFixture {
+
+	/**
+	 * Configuration parameter which enables the fixtures, to be set at the
+	 * {@link EngineTestKit} which runs them.
+	 */
+	String ENABLED_PROPERTY = "tracing.test.engine-test-kit-fixtures.enabled";
+
+	/**
+	 * Enables the fixtures only when {@link #ENABLED_PROPERTY} is set.
+	 */
+	final class Condition implements ExecutionCondition {
+
+		@Override
+		public ConditionEvaluationResult evaluateExecutionCondition(final ExtensionContext context) {
+			return context.getConfigurationParameter(ENABLED_PROPERTY, Boolean::parseBoolean).orElse(false)
+					? ConditionEvaluationResult.enabled("Run by the EngineTestKit")
+					: ConditionEvaluationResult.disabled("Only run by the EngineTestKit");
+		}
+
+	}
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.test.tracing.test;
+
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import io.micrometer.tracing.test.simple.TracingAssertions;
+import org.jordi.tracing.test.StandaloneTracingTest;
+import org.jordi.tracing.test.clock.VirtualClock;
+import org.jordi.tracing.test.collector.SpanCollector;
+import org.jordi.tracing.test.extension.Spans;
+import org.jordi.tracing.test.extension.TestClock;
+import org.jordi.tracing.test.extension.TestPropagator;
+import org.jordi.tracing.test.extension.TestTracer;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@StandaloneTracingTest(virtualClock = true)
+class FinalFieldInjectionTests {
+
+	@Spans
+	private final SpanCollector spanCollector = null;
+
+	@TestTracer
+	private final Tracer tracer = null;
+
+	@TestPropagator
+	private final Propagator propagator = null;
+
+	@TestClock
+	private final VirtualClock clock = null;
+
+	@Test
+	void injectsFinalFields() {
+		assertThat(this.propagator).isNotNull();
+		assertThat(this.clock).isNotNull();
+
+		this.tracer.nextSpan().name("rootSpan").start().end();
+
+		TracingAssertions.assertThat(this.spanCollector.getFinishedSpans())
+			.hasNumberOfSpansEqualTo(1)
+			.hasASpanWithName("rootSpan");
+	}
+
+}
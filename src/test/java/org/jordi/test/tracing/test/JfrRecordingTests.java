@@ -0,0 +1,127 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.test.tracing.test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.jordi.tracing.test.StandaloneTracingTest;
+import org.jordi.tracing.test.collector.SpanCollector;
+import org.jordi.tracing.test.extension.Spans;
+import org.jordi.tracing.test.extension.TestTracer;
+import org.jordi.tracing.test.jfr.JfrRecording;
+import org.jordi.tracing.test.jfr.SpanEvent;
+import org.jordi.tracing.test.jfr.SpanRecording;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.platform.testkit.engine.EngineTestKit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+@StandaloneTracingTest
+class JfrRecordingTests {
+
+	@Spans
+	private SpanCollector spanCollector;
+
+	@TestTracer
+	private Tracer tracer;
+
+	@Test
+	void recordsSpansAsJfrEvents(@TempDir final Path tempDir) throws Exception {
+
+		final Path file;
+		try (SpanRecording recording = SpanRecording.start(this.spanCollector, "default")) {
+			final Span span = this.tracer.nextSpan().name("recorded").start();
+			Thread.sleep(5);
+			span.end();
+
+			file = recording.dump(tempDir.resolve("spans.jfr"));
+		}
+
+		final List<RecordedEvent> spanEvents = RecordingFile.readAllEvents(file)
+			.stream()
+			.filter((event) -> SpanEvent.NAME.equals(event.getEventType().getName()))
+			.toList();
+
+		assertThat(spanEvents).singleElement().satisfies((event) -> {
+			final var finishedSpan = this.spanCollector.getFinishedSpans().get(0);
+			assertThat(event.getString("name")).isEqualTo("recorded");
+			assertThat(event.getString("traceId")).isEqualTo(finishedSpan.getTraceId());
+			assertThat(event.getString("spanId")).isEqualTo(finishedSpan.getSpanId());
+			assertThat(event.getDuration("spanDuration")).isGreaterThanOrEqualTo(Duration.ofMillis(5));
+			// the event itself covers the span, from its start to its end
+			assertThat(event.getDuration()).isGreaterThanOrEqualTo(Duration.ofMillis(5));
+		});
+
+	}
+
+	@Test
+	void recordsEveryTestWhenAnnotated() throws Exception {
+
+		final Path destination = Path.of(AnnotatedTests.DESTINATION);
+		final List<Path> files = List.of(destination.resolve("AnnotatedTests-recordsASpan-1.jfr"),
+				destination.resolve("AnnotatedTests-recordsASpan-2.jfr"));
+		for (final Path file : files) {
+			Files.deleteIfExists(file);
+		}
+
+		EngineTestKit.engine("junit-jupiter")
+			.configurationParameter(EngineTestKitFixture.ENABLED_PROPERTY, "true")
+			.selectors(selectClass(AnnotatedTests.class))
+			.execute()
+			.testEvents()
+			.assertStatistics((stats) -> stats.succeeded(2));
+
+		for (final Path file : files) {
+			assertThat(RecordingFile.readAllEvents(file))
+				.filteredOn((event) -> SpanEvent.NAME.equals(event.getEventType().getName()))
+				.singleElement()
+				.satisfies((event) -> assertThat(event.getString("name")).isEqualTo("annotated"));
+		}
+
+	}
+
+	/**
+	 * Run by the engine of the tests above, it is disabled when run by itself.
+	 */
+	@EngineTestKitFixture
+	@StandaloneTracingTest
+	static class AnnotatedTests {
+
+		static final String DESTINATION = "target/jfr-tests";
+
+		@TestTracer
+		private Tracer tracer;
+
+		@RepeatedTest(2)
+		@JfrRecording(settings = "default", destination = DESTINATION)
+		void recordsASpan() {
+			this.tracer.nextSpan().name("annotated").start().end();
+		}
+
+	}
+
+}
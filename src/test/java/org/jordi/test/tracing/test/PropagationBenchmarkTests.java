@@ -0,0 +1,139 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.test.tracing.test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import io.micrometer.tracing.BaggageInScope;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.propagation.Propagator;
+import org.jordi.tracing.test.TracingProvider;
+import org.jordi.tracing.test.standalone.StandaloneTracing;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Measures the inject and extract throughput of the W3C, B3 and baggage propagation,
+ * and the size of the propagated headers, as the baggage entries grow.
+ *
+ * <p>
+ * Only executed with the {@code benchmark} maven profile.
+ * </p>
+ */
+@Tag("benchmark")
+class PropagationBenchmarkTests {
+
+	private static final int[] BAGGAGE_ENTRIES = { 0, 1, 4, 16, 32 };
+
+	private static final int WARMUP_ITERATIONS = 20_000;
+
+	private static final int ITERATIONS = 100_000;
+
+	private static final String BAGGAGE_VALUE = "0123456789abcdef";
+
+	@ParameterizedTest
+	@EnumSource(TracingProvider.class)
+	void propagationCost(final TracingProvider provider) {
+
+		System.out.printf(Locale.ROOT, "%s propagation (W3C + B3 + baggage):%n", provider);
+		System.out.printf(Locale.ROOT, "  %8s %8s %12s %12s%n", "baggage", "headers", "inject/s", "extract/s");
+
+		for (final int baggageEntries : BAGGAGE_ENTRIES) {
+			final List<String> fields = IntStream.range(0, baggageEntries).mapToObj((i) -> "field-" + i).toList();
+
+			try (StandaloneTracing tracing = StandaloneTracing.builder(provider).remoteBaggageFields(fields).build()) {
+				measure(tracing.getTracer(), tracing.getPropagator(), fields);
+			}
+		}
+	}
+
+	private static void measure(final Tracer tracer, final Propagator propagator, final List<String> fields) {
+		final Span span = tracer.nextSpan().name("client").start();
+		final List<BaggageInScope> baggage = new ArrayList<>();
+
+		try (var spanInScope = tracer.withSpan(span)) {
+			fields.forEach((field) -> baggage.add(tracer.createBaggageInScope(field, BAGGAGE_VALUE)));
+
+			final Map<String, String> headers = new HashMap<>();
+			propagator.inject(span.context(), headers, Map::put);
+			assertThat(headers).hasSizeGreaterThanOrEqualTo(2 + fields.size());
+
+			inject(propagator, span, WARMUP_ITERATIONS);
+			extract(propagator, headers, WARMUP_ITERATIONS);
+
+			final double injectsPerSecond = perSecond(ITERATIONS, inject(propagator, span, ITERATIONS));
+			final double extractsPerSecond = perSecond(ITERATIONS, extract(propagator, headers, ITERATIONS));
+
+			System.out.printf(Locale.ROOT, "  %8d %7dB %12.0f %12.0f%n", fields.size(), headersSize(headers),
+					injectsPerSecond, extractsPerSecond);
+		}
+		finally {
+			baggage.forEach(BaggageInScope::close);
+			span.end();
+		}
+	}
+
+	private static long inject(final Propagator propagator, final Span span, final int iterations) {
+		final Map<String, String> headers = new HashMap<>();
+		final long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			headers.clear();
+			propagator.inject(span.context(), headers, Map::put);
+		}
+		final long nanos = System.nanoTime() - start;
+
+		assertThat(headers).isNotEmpty();
+		return nanos;
+	}
+
+	private static long extract(final Propagator propagator, final Map<String, String> headers, final int iterations) {
+		// consumed, so the extraction cannot be optimized away
+		int extracted = 0;
+		final long start = System.nanoTime();
+		for (int i = 0; i < iterations; i++) {
+			if (propagator.extract(headers, Map::get) != null) {
+				extracted++;
+			}
+		}
+		final long nanos = System.nanoTime() - start;
+
+		assertThat(extracted).isEqualTo(iterations);
+		return nanos;
+	}
+
+	private static int headersSize(final Map<String, String> headers) {
+		// "name: value\r\n" per header
+		return headers.entrySet()
+			.stream()
+			.mapToInt((header) -> header.getKey().length() + header.getValue().length() + 4)
+			.sum();
+	}
+
+	private static double perSecond(final int iterations, final long nanos) {
+		return iterations * 1_000_000_000.0 / nanos;
+	}
+
+}
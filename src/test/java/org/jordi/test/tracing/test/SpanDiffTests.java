@@ -0,0 +1,182 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.test.tracing.test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.exporter.FinishedSpan;
+import io.micrometer.tracing.test.simple.SimpleSpan;
+import org.jordi.tracing.test.StandaloneTracingTest;
+import org.jordi.tracing.test.collector.SpanCollector;
+import org.jordi.tracing.test.diff.SpanDiff;
+import org.jordi.tracing.test.diff.SpanDiff.DurationDelta;
+import org.jordi.tracing.test.diff.SpanDiff.TagChange;
+import org.jordi.tracing.test.diff.SpanPath;
+import org.jordi.tracing.test.extension.Spans;
+import org.jordi.tracing.test.extension.TestTracer;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeout;
+
+@StandaloneTracingTest
+class SpanDiffTests {
+
+	@Spans
+	private SpanCollector spanCollector;
+
+	@TestTracer
+	private Tracer tracer;
+
+	@Test
+	void equalCaptures() {
+
+		final List<FinishedSpan> baseline = this.capture("v1", false);
+		final List<FinishedSpan> candidate = this.capture("v1", false);
+
+		final SpanDiff diff = SpanDiff.between(baseline, candidate);
+
+		assertThat(diff.isStructurallyEqual()).isTrue();
+		assertThat(diff.getDurationDeltas()).extracting((delta) -> delta.path().toString())
+			.containsExactly("gateway", "gateway > orders");
+
+	}
+
+	@Test
+	void reportsAddedRemovedSpansAndChangedTags() {
+
+		final List<FinishedSpan> baseline = this.capture("v1", false);
+		final List<FinishedSpan> candidate = this.capture("v2", true);
+
+		final SpanDiff diff = SpanDiff.between(baseline, candidate);
+
+		assertThat(diff.getAddedSpans()).extracting((added) -> added.path().toString())
+			.containsExactly("gateway > orders > cache");
+		assertThat(diff.getRemovedSpans()).isEmpty();
+		assertThat(diff.getTagChanges()).singleElement().satisfies((change) -> {
+			assertThat(change.path()).hasToString("gateway > orders");
+			assertThat(change).extracting(TagChange::key, TagChange::baselineValue, TagChange::candidateValue)
+				.containsExactly("version", "v1", "v2");
+		});
+
+	}
+
+	@Test
+	void comparesThePathsOfTheSameDiff() {
+
+		final List<FinishedSpan> baseline = this.capture("v1", false);
+		final List<FinishedSpan> candidate = this.capture("v2", false);
+
+		final SpanDiff diff = SpanDiff.between(baseline, candidate);
+		final SpanPath changedPath = diff.getTagChanges().get(0).path();
+
+		assertThat(diff.getDurationDeltas()).extracting(DurationDelta::path)
+			.filteredOn(changedPath::equals)
+			.singleElement()
+			.hasSameHashCodeAs(changedPath);
+		assertThat(SpanDiff.between(baseline, candidate).getTagChanges().get(0).path()).isNotEqualTo(changedPath);
+
+	}
+
+	@Test
+	void diffsDeepTracesWithoutRecursion() {
+
+		final int depth = 100_000;
+		final List<FinishedSpan> baseline = chain(depth, "v1");
+		final List<FinishedSpan> candidate = chain(depth, "v2");
+
+		final SpanDiff diff = assertTimeout(Duration.ofSeconds(5), () -> SpanDiff.between(baseline, candidate));
+
+		assertThat(diff.getDurationDeltas()).hasSize(depth);
+		assertThat(diff.getTagChanges()).hasSize(depth);
+		assertThat(diff.getDurationDeltas().get(depth - 1).path().getNames()).hasSize(depth).containsOnly("call");
+
+	}
+
+	@Test
+	void diffsLargeCaptures() {
+
+		final List<FinishedSpan> baseline = traces(1_000, 100, "v1");
+		final List<FinishedSpan> candidate = traces(1_000, 100, "v2");
+		candidate.add(span("extra", "root", null, "gateway"));
+
+		final SpanDiff diff = assertTimeout(Duration.ofSeconds(5), () -> SpanDiff.between(baseline, candidate));
+
+		assertThat(diff.getAddedSpans()).extracting((added) -> added.path().toString()).containsExactly("gateway");
+		assertThat(diff.getTagChanges()).hasSize(99_000);
+		assertThat(diff.getDurationDeltas()).extracting((delta) -> delta.path().toString())
+			.startsWith("gateway", "gateway > call-0", "gateway > call-1");
+
+	}
+
+	private List<FinishedSpan> capture(final String version, final boolean withCache) {
+		this.spanCollector.reset();
+
+		final Span gateway = this.tracer.nextSpan().name("gateway").start();
+		try (var gatewayInScope = this.tracer.withSpan(gateway)) {
+			final Span orders = this.tracer.nextSpan().name("orders").tag("version", version).start();
+			try (var ordersInScope = this.tracer.withSpan(orders)) {
+				if (withCache) {
+					this.tracer.nextSpan().name("cache").start().end();
+				}
+			}
+			finally {
+				orders.end();
+			}
+		}
+		finally {
+			gateway.end();
+		}
+
+		return this.spanCollector.getFinishedSpans();
+	}
+
+	private static List<FinishedSpan> chain(final int depth, final String version) {
+		final List<FinishedSpan> spans = new ArrayList<>(depth);
+		for (int i = 0; i < depth; i++) {
+			spans.add(span("trace", "span-" + i, (i == 0) ? null : "span-" + (i - 1), "call").tag("version", version));
+		}
+		return spans;
+	}
+
+	private static List<FinishedSpan> traces(final int traces, final int spansPerTrace, final String version) {
+		final List<FinishedSpan> spans = new ArrayList<>(traces * spansPerTrace);
+		for (int trace = 0; trace < traces; trace++) {
+			spans.add(span("trace-" + trace, "root", null, "gateway"));
+			for (int i = 1; i < spansPerTrace; i++) {
+				spans.add(span("trace-" + trace, "span-" + i, "root", "call-" + (i % 10)).tag("version", version));
+			}
+		}
+		return spans;
+	}
+
+	private static SimpleSpan span(final String traceId, final String spanId, final String parentId,
+			final String name) {
+		final SimpleSpan span = new SimpleSpan();
+		span.context().setTraceId(traceId);
+		span.context().setSpanId(spanId);
+		span.context().setParentId(parentId);
+		span.name(name).start();
+		span.end();
+		return span;
+	}
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.test.tracing.test;
+
+import java.time.Duration;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.jordi.tracing.test.StandaloneTracingTest;
+import org.jordi.tracing.test.assertions.SpanExpectations;
+import org.jordi.tracing.test.clock.VirtualClock;
+import org.jordi.tracing.test.collector.SpanCollector;
+import org.jordi.tracing.test.extension.Spans;
+import org.jordi.tracing.test.extension.TestClock;
+import org.jordi.tracing.test.extension.TestTracer;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.jordi.tracing.test.assertions.SpanMatcher.childOf;
+import static org.jordi.tracing.test.assertions.SpanMatcher.durationUnder;
+import static org.jordi.tracing.test.assertions.SpanMatcher.named;
+import static org.jordi.tracing.test.assertions.SpanMatcher.root;
+import static org.jordi.tracing.test.assertions.SpanMatcher.withTag;
+
+@StandaloneTracingTest(virtualClock = true)
+class SpanExpectationsTests {
+
+	@Spans
+	private SpanCollector spanCollector;
+
+	@TestTracer
+	private Tracer tracer;
+
+	@TestClock
+	private VirtualClock clock;
+
+	@Test
+	void verifiesMultiSpanExpectations() {
+
+		this.parentWithChildren(3);
+
+		SpanExpectations.expectSpans()
+			.exactly(1, named("parent").and(root()))
+			.then(3, named("child").and(childOf(named("parent"))).and(durationUnder(Duration.ofSeconds(5))))
+			.verify(this.spanCollector);
+
+	}
+
+	@Test
+	void reportsAllMismatchesAtOnce() {
+
+		this.parentWithChildren(2);
+
+		assertThatExceptionOfType(AssertionError.class)
+			.isThrownBy(() -> SpanExpectations.expectSpans()
+				.exactly(1, named("parent"))
+				.then(3, named("child").and(childOf(named("parent"))))
+				.exactly(2, named("child").and(withTag("tag", "other-value")))
+				.none(named("parent"))
+				.verify(this.spanCollector))
+			.withMessageContaining("expected exactly 3 span(s) [name is 'child' and child of (name is 'parent')] but found 2")
+			.withMessageContaining("does not match [has tag 'tag'='other-value']")
+			.withMessageContaining("expected exactly 0 span(s) [name is 'parent'] but found 1");
+
+	}
+
+	@Test
+	void requiresEverySpanToStartAfterAllThePreviousOnes() {
+
+		this.span("first");
+		this.span("second");
+		this.span("first");
+
+		assertThatExceptionOfType(AssertionError.class)
+			.isThrownBy(() -> SpanExpectations.expectSpans()
+				.exactly(2, named("first"))
+				.then(1, named("second"))
+				.verify(this.spanCollector))
+			.withMessageContaining("expected exactly 1 span(s) [name is 'second'] to start after every span "
+					+ "[name is 'first'] but span 'second'");
+
+	}
+
+	private void span(final String name) {
+		this.tracer.nextSpan().name(name).start().end();
+		this.clock.advance(Duration.ofMillis(1));
+	}
+
+	private void parentWithChildren(final int children) {
+		final Span parent = this.tracer.nextSpan().name("parent").start();
+
+		try (var spanInScope = this.tracer.withSpan(parent)) {
+			for (int i = 0; i < children; i++) {
+				this.tracer.nextSpan().name("child").tag("tag", "tag-value").start().end();
+			}
+		}
+		finally {
+			parent.end();
+		}
+	}
+
+}
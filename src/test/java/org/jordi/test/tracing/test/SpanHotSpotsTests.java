@@ -0,0 +1,175 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.test.tracing.test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.jordi.tracing.test.StandaloneTracingTest;
+import org.jordi.tracing.test.collector.SpanCollector;
+import org.jordi.tracing.test.extension.Spans;
+import org.jordi.tracing.test.extension.TestTracer;
+import org.jordi.tracing.test.report.HotSpotReportListener;
+import org.jordi.tracing.test.report.SpanHotSpot;
+import org.jordi.tracing.test.report.SpanHotSpots;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.platform.testkit.engine.EngineTestKit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+
+@StandaloneTracingTest
+class SpanHotSpotsTests {
+
+	@Spans
+	private SpanCollector spanCollector;
+
+	@TestTracer
+	private Tracer tracer;
+
+	@Test
+	void ranksTheSlowestAndMostFrequentSpans() throws Exception {
+
+		final SpanHotSpots hotSpots = new SpanHotSpots();
+
+		this.span("slow", Duration.ofMillis(20));
+		this.span("fast", Duration.ZERO);
+		this.span("fast", Duration.ZERO);
+		hotSpots.record("FirstTest#test", this.spanCollector.getFinishedSpans());
+		this.spanCollector.reset();
+
+		this.span("fast", Duration.ZERO);
+		hotSpots.record("SecondTest#test", this.spanCollector.getFinishedSpans());
+
+		assertThat(hotSpots.getSlowest(10)).extracting(SpanHotSpot::getName).containsExactly("slow", "fast");
+		assertThat(hotSpots.getMostFrequent(1)).singleElement().satisfies((hotSpot) -> {
+			assertThat(hotSpot.getName()).isEqualTo("fast");
+			assertThat(hotSpot.getCount()).isEqualTo(3);
+			assertThat(hotSpot.getTests(10)).extracting(SpanHotSpot.TestSpans::getTest)
+				.containsExactlyInAnyOrder("FirstTest#test", "SecondTest#test");
+		});
+		assertThat(hotSpots.getSlowest(1).get(0).getMaxDuration()).isGreaterThanOrEqualTo(Duration.ofMillis(20));
+
+	}
+
+	@Test
+	void writesTheReports(@TempDir final Path tempDir) throws Exception {
+
+		final SpanHotSpots hotSpots = new SpanHotSpots();
+		this.span("<\"quoted\">", Duration.ZERO);
+		hotSpots.record("ReportTest#test", this.spanCollector.getFinishedSpans());
+
+		hotSpots.writeReports(tempDir, 10);
+
+		assertThat(Files.readString(tempDir.resolve(SpanHotSpots.JSON_REPORT)))
+			.contains("\"name\": \"<\\\"quoted\\\">\"", "\"test\": \"ReportTest#test\"");
+		assertThat(Files.readString(tempDir.resolve(SpanHotSpots.HTML_REPORT))).contains("&lt;&quot;quoted&quot;&gt;");
+
+	}
+
+	@Test
+	void recordsTheTestsOnlyWhenTheReportIsEnabled() {
+
+		final SpanHotSpots suite = SpanHotSpots.suite();
+		final SpanHotSpots snapshot = suite.snapshot();
+		try {
+			EngineTestKit.engine("junit-jupiter")
+				.configurationParameter(EngineTestKitFixture.ENABLED_PROPERTY, "true")
+				.selectors(selectClass(ReportedTests.class))
+				.execute();
+
+			assertThat(suite.getMostFrequent(Integer.MAX_VALUE)).extracting(SpanHotSpot::getName)
+				.doesNotContain(ReportedTests.SPAN_NAME);
+
+			EngineTestKit.engine("junit-jupiter")
+				.configurationParameter(EngineTestKitFixture.ENABLED_PROPERTY, "true")
+				.configurationParameter(HotSpotReportListener.ENABLED_PROPERTY, "true")
+				.selectors(selectClass(ReportedTests.class))
+				.execute();
+
+			assertThat(suite.getMostFrequent(Integer.MAX_VALUE)).extracting(SpanHotSpot::getName)
+				.contains(ReportedTests.SPAN_NAME);
+		}
+		finally {
+			// the spans of the fixture must not reach the report of the build
+			suite.restore(snapshot);
+		}
+
+	}
+
+	@Test
+	void restoresASnapshot() {
+
+		final SpanHotSpots hotSpots = new SpanHotSpots();
+		this.span("kept", Duration.ZERO);
+		hotSpots.record("FirstTest#test", this.spanCollector.getFinishedSpans());
+		this.spanCollector.reset();
+
+		final SpanHotSpots snapshot = hotSpots.snapshot();
+		this.span("kept", Duration.ZERO);
+		this.span("forgotten", Duration.ZERO);
+		hotSpots.record("SecondTest#test", this.spanCollector.getFinishedSpans());
+
+		assertThat(snapshot.getMostFrequent(10)).singleElement()
+			.satisfies((hotSpot) -> assertThat(hotSpot.getCount()).isOne());
+
+		hotSpots.restore(snapshot);
+
+		assertThat(hotSpots.getMostFrequent(10)).singleElement().satisfies((hotSpot) -> {
+			assertThat(hotSpot.getName()).isEqualTo("kept");
+			assertThat(hotSpot.getCount()).isOne();
+			assertThat(hotSpot.getTests(10)).extracting(SpanHotSpot.TestSpans::getTest)
+				.containsExactly("FirstTest#test");
+		});
+
+	}
+
+	private void span(final String name, final Duration duration) {
+		final Span span = this.tracer.nextSpan().name(name).start();
+		try {
+			Thread.sleep(duration.toMillis());
+		}
+		catch (final InterruptedException ex) {
+			Thread.currentThread().interrupt();
+		}
+		span.end();
+	}
+
+	/**
+	 * Run by the engine of the tests above, it is disabled when run by itself.
+	 */
+	@EngineTestKitFixture
+	@StandaloneTracingTest
+	static class ReportedTests {
+
+		static final String SPAN_NAME = "hot-spots-report-fixture";
+
+		@TestTracer
+		private Tracer tracer;
+
+		@Test
+		void endsASpan() {
+			this.tracer.nextSpan().name(SPAN_NAME).start().end();
+		}
+
+	}
+
+}
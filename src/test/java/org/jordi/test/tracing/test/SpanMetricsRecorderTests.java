@@ -0,0 +1,97 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.test.tracing.test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import org.jordi.tracing.test.collector.otel.CollectingSpanProcessor;
+import org.jordi.tracing.test.collector.otel.OtelSpanProcessorCollector;
+import org.jordi.tracing.test.metrics.SpanMetricsRecorder;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpanMetricsRecorderTests {
+
+	@Test
+	void buildsTheSpanDataOnlyWhenTheMetricsAreRead() {
+
+		final CountingSpanProcessor spanProcessor = new CountingSpanProcessor();
+		final OtelSpanProcessorCollector spanCollector = new OtelSpanProcessorCollector(spanProcessor);
+		final SpanMetricsRecorder spanMetricsRecorder = new SpanMetricsRecorder(spanCollector);
+
+		try (SdkTracerProvider tracerProvider = SdkTracerProvider.builder().addSpanProcessor(spanProcessor).build()) {
+			final Tracer tracer = tracerProvider.get("test");
+			tracer.spanBuilder("first").startSpan().end();
+			tracer.spanBuilder("second").startSpan().end();
+
+			assertThat(spanProcessor.spanDataCount).hasValue(0);
+
+			final Timer timer = spanMetricsRecorder.getMeterRegistry()
+				.find(SpanMetricsRecorder.SPAN_DURATION_METRIC)
+				.tag(SpanMetricsRecorder.SPAN_NAME_TAG, "first")
+				.timer();
+
+			assertThat(timer).isNotNull();
+			assertThat(timer.count()).isEqualTo(1);
+			assertThat(spanProcessor.spanDataCount).hasValue(2);
+		}
+
+	}
+
+	@Test
+	void recordsTheSpansCollectedAtEachRead() {
+
+		final CollectingSpanProcessor spanProcessor = new CollectingSpanProcessor();
+		final OtelSpanProcessorCollector spanCollector = new OtelSpanProcessorCollector(spanProcessor);
+		final SpanMetricsRecorder spanMetricsRecorder = new SpanMetricsRecorder(spanCollector);
+
+		try (SdkTracerProvider tracerProvider = SdkTracerProvider.builder().addSpanProcessor(spanProcessor).build()) {
+			final Tracer tracer = tracerProvider.get("test");
+			tracer.spanBuilder("span").startSpan().end();
+
+			assertThat(spanMetricsRecorder.report()).contains("count=1");
+
+			tracer.spanBuilder("span").startSpan().end();
+
+			assertThat(spanMetricsRecorder.report()).contains("count=2");
+
+			spanCollector.reset();
+
+			assertThat(spanMetricsRecorder.report()).isEmpty();
+		}
+
+	}
+
+	static class CountingSpanProcessor extends CollectingSpanProcessor {
+
+		private final AtomicInteger spanDataCount = new AtomicInteger();
+
+		@Override
+		public SpanData toSpanData(final ReadableSpan span) {
+			this.spanDataCount.incrementAndGet();
+			return super.toSpanData(span);
+		}
+
+	}
+
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.test.tracing.test;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.jordi.tracing.test.StandaloneTracingTest;
+import org.jordi.tracing.test.collector.SpanCollector;
+import org.jordi.tracing.test.extension.Spans;
+import org.jordi.tracing.test.extension.TestTracer;
+import org.jordi.tracing.test.profile.SpanFormat;
+import org.jordi.tracing.test.profile.SpanSizeProfile;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+
+@StandaloneTracingTest
+class SpanSizeProfileTests {
+
+	@Spans
+	private SpanCollector spanCollector;
+
+	@TestTracer
+	private Tracer tracer;
+
+	@Test
+	void profilesSpanSizeAndTagCardinality() {
+
+		for (int i = 0; i < 5; i++) {
+			final Span span = this.tracer.nextSpan().name("request").start();
+			span.tag("user.id", "user-" + i);
+			span.tag("method", "GET");
+			span.end();
+		}
+
+		final SpanSizeProfile profile = SpanSizeProfile.of(this.spanCollector);
+		final SpanSizeProfile.SpanNameProfile requestProfile = profile.getProfile("request");
+
+		assertThat(requestProfile.getCount()).isEqualTo(5);
+		assertThat(requestProfile.getMaxTagCount()).isEqualTo(2);
+		assertThat(requestProfile.getMaxSize(SpanFormat.ZIPKIN_JSON))
+			.isGreaterThan(requestProfile.getMaxSize(SpanFormat.OTLP_PROTOBUF));
+		assertThat(requestProfile.getTagCardinalities()).containsEntry("user.id", 5).containsEntry("method", 1);
+
+		profile.assertSpanSizeUnder("request", SpanFormat.OTLP_PROTOBUF, 1024).assertTagCardinalityUnder("method", 2);
+
+		assertThatExceptionOfType(AssertionError.class)
+			.isThrownBy(() -> profile.assertTagCardinalityUnder("user.id", 3))
+			.withMessageContaining("it has 5");
+		assertThatExceptionOfType(AssertionError.class)
+			.isThrownBy(() -> profile.assertSpanSizeUnder("request", SpanFormat.ZIPKIN_JSON, 10));
+
+	}
+
+}
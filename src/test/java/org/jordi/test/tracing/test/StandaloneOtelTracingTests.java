@@ -0,0 +1,49 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.test.tracing.test;
+
+import java.util.List;
+
+import io.micrometer.tracing.exporter.FinishedSpan;
+import org.jordi.tracing.test.StandaloneTracingTest;
+import org.jordi.tracing.test.TracingProvider;
+import org.jordi.tracing.test.UnfinishedSpansPolicy;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@StandaloneTracingTest(unfinishedSpans = UnfinishedSpansPolicy.FAIL, unfinishedSpansStackTrace = true,
+		baggage = "tenant", provider = TracingProvider.OTEL)
+class StandaloneOtelTracingTests extends AbstractStandaloneTracingTests {
+
+	@Test
+	void readsTheFinishedSpansAgainOnlyWhenTheyChange() {
+		this.tracer.nextSpan().name("first").start().end();
+
+		final List<FinishedSpan> finishedSpans = this.spanCollector.getFinishedSpans();
+		assertThat(this.spanCollector.getFinishedSpans()).isSameAs(finishedSpans);
+
+		this.tracer.nextSpan().name("second").start().end();
+
+		assertThat(this.spanCollector.getFinishedSpans()).isNotSameAs(finishedSpans).hasSize(2);
+
+		this.spanCollector.reset();
+
+		assertThat(this.spanCollector.getFinishedSpans()).isEmpty();
+	}
+
+}
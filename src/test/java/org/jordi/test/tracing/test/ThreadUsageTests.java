@@ -0,0 +1,143 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.test.tracing.test;
+
+import java.time.Duration;
+import java.util.List;
+
+import brave.Tracing;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.exporter.FinishedSpan;
+import org.jordi.tracing.test.StandaloneTracingTest;
+import org.jordi.tracing.test.TracingProvider;
+import org.jordi.tracing.test.assertions.SpanExpectations;
+import org.jordi.tracing.test.collector.SpanCollector;
+import org.jordi.tracing.test.collector.ThreadUsage;
+import org.jordi.tracing.test.collector.brave.InMemorySpanHandler;
+import org.jordi.tracing.test.diff.SpanDiff;
+import org.jordi.tracing.test.extension.Spans;
+import org.jordi.tracing.test.extension.TestTracer;
+import org.jordi.tracing.test.profile.SpanSizeProfile;
+import org.jordi.tracing.test.standalone.StandaloneTracing;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.jordi.tracing.test.assertions.SpanMatcher.allocatesUnder;
+import static org.jordi.tracing.test.assertions.SpanMatcher.cpuTimeUnder;
+import static org.jordi.tracing.test.assertions.SpanMatcher.named;
+
+@StandaloneTracingTest(threadUsage = true)
+class ThreadUsageTests {
+
+	private static final int ALLOCATED_BYTES = 1024 * 1024;
+
+	@Spans
+	private SpanCollector spanCollector;
+
+	@TestTracer
+	private Tracer tracer;
+
+	@Test
+	void recordsTheThreadUsageOfTheSpans() {
+
+		this.allocatingSpan(this.tracer);
+		this.tracer.nextSpan().name("idle").start().end();
+
+		SpanExpectations.expectSpans()
+			.exactly(1, named("idle").and(allocatesUnder(64 * 1024)).and(cpuTimeUnder(Duration.ofSeconds(1))))
+			.verify(this.spanCollector);
+
+		assertThatExceptionOfType(AssertionError.class)
+			.isThrownBy(() -> SpanExpectations.expectSpans()
+				.exactly(1, named("allocating").and(allocatesUnder(ALLOCATED_BYTES)))
+				.verify(this.spanCollector))
+			.withMessageContaining("allocated bytes < " + ALLOCATED_BYTES);
+
+	}
+
+	@Test
+	void recordsTheThreadUsageOfBraveSpans() {
+
+		try (StandaloneTracing tracing = StandaloneTracing.builder(TracingProvider.BRAVE)
+			.recordThreadUsage(true)
+			.build()) {
+			this.allocatingSpan(tracing.getTracer());
+
+			assertThat(ThreadUsage.of(tracing.getSpanCollector().getFinishedSpans().get(0)))
+				.hasValueSatisfying((threadUsage) -> {
+					assertThat(threadUsage.getAllocatedBytes()).isGreaterThanOrEqualTo(ALLOCATED_BYTES);
+					assertThat(threadUsage.getCpuTime()).isPositive();
+				});
+		}
+
+	}
+
+	@Test
+	void doesNotRecordTheSpansEndedAtAnotherThread() throws Exception {
+
+		final Span span = this.tracer.nextSpan().name("async").start();
+		final Thread thread = new Thread(span::end);
+		thread.start();
+		thread.join();
+
+		assertThat(ThreadUsage.of(this.spanCollector.getFinishedSpans().get(0))).isEmpty();
+
+	}
+
+	@Test
+	void doesNotTagTheSpansReportedToTheOtherHandlers() {
+
+		final InMemorySpanHandler spanHandler = new InMemorySpanHandler(true);
+		final InMemorySpanHandler exporter = new InMemorySpanHandler();
+		try (Tracing tracing = Tracing.newBuilder().addSpanHandler(spanHandler).addSpanHandler(exporter).build()) {
+			tracing.tracer().nextSpan().name("exported").start().finish();
+		}
+
+		assertThat(spanHandler.get(0).tags()).containsKeys(ThreadUsage.CPU_TIME_TAG, ThreadUsage.ALLOCATED_BYTES_TAG);
+		assertThat(exporter.get(0).tags()).doesNotContainKeys(ThreadUsage.CPU_TIME_TAG,
+				ThreadUsage.ALLOCATED_BYTES_TAG);
+
+	}
+
+	@Test
+	void ignoresTheThreadUsageAtDiffsAndProfiles() {
+
+		this.allocatingSpan(this.tracer);
+		final List<FinishedSpan> baseline = this.spanCollector.getFinishedSpans();
+		this.spanCollector.reset();
+		this.tracer.nextSpan().name("allocating").tag("buffers", "1024").start().end();
+		final List<FinishedSpan> candidate = this.spanCollector.getFinishedSpans();
+
+		assertThat(SpanDiff.between(baseline, candidate).getTagChanges()).isEmpty();
+		assertThat(SpanSizeProfile.of(candidate).getProfile("allocating").getTagCardinalities())
+			.containsOnlyKeys("buffers");
+
+	}
+
+	private void allocatingSpan(final Tracer tracer) {
+		final Span span = tracer.nextSpan().name("allocating").start();
+		final byte[][] buffers = new byte[ALLOCATED_BYTES / 1024][];
+		for (int i = 0; i < buffers.length; i++) {
+			buffers[i] = new byte[1024];
+		}
+		span.tag("buffers", String.valueOf(buffers.length));
+		span.end();
+	}
+
+}
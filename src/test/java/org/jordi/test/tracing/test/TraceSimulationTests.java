@@ -0,0 +1,166 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.test.tracing.test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.exporter.FinishedSpan;
+import org.jordi.tracing.test.TracingProvider;
+import org.jordi.tracing.test.assertions.SpanExpectations;
+import org.jordi.tracing.test.collector.FinishedSpans;
+import org.jordi.tracing.test.simulation.SimulatedCallException;
+import org.jordi.tracing.test.simulation.SimulatedService;
+import org.jordi.tracing.test.simulation.TraceSimulation;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.jordi.tracing.test.assertions.SpanMatcher.childOf;
+import static org.jordi.tracing.test.assertions.SpanMatcher.durationAtLeast;
+import static org.jordi.tracing.test.assertions.SpanMatcher.named;
+import static org.jordi.tracing.test.assertions.SpanMatcher.ofKind;
+import static org.jordi.tracing.test.assertions.SpanMatcher.withTag;
+
+class TraceSimulationTests {
+
+	@ParameterizedTest
+	@EnumSource(TracingProvider.class)
+	void tracesCallsAcrossServices(final TracingProvider provider) {
+
+		try (TraceSimulation simulation = TraceSimulation.create(provider, List.of("tenant"))) {
+			simulation.networkLatency(Duration.ofMillis(5));
+
+			final SimulatedService orders = simulation.service("orders");
+			final SimulatedService stock = simulation.service("stock");
+			stock.endpoint("reserve", (request) -> stock.getTracer().getBaggage("tenant").get());
+			simulation.service("pricing").endpoint("price", (request) -> "10");
+			orders.endpoint("create", (request) -> {
+				final CompletableFuture<String> first = orders.callAsync("pricing", "price", null);
+				final CompletableFuture<String> second = orders.callAsync("pricing", "price", null);
+				return orders.call("stock", "reserve") + first.join() + second.join();
+			});
+
+			final SimulatedService gateway = simulation.service("gateway");
+			final Span request = gateway.getTracer().nextSpan().name("request").start();
+			try (var spanInScope = gateway.getTracer().withSpan(request);
+					var baggageInScope = gateway.getTracer().createBaggageInScope("tenant", "acme")) {
+				assertThat(gateway.call("orders", "create")).isEqualTo("acme1010");
+			}
+			finally {
+				request.end();
+			}
+
+			final List<FinishedSpan> spans = simulation.getSpanCollector().getFinishedSpans();
+			assertThat(spans).extracting(FinishedSpan::getTraceId).containsOnly(request.context().traceId());
+			assertThat(spans).extracting(FinishedSpans::localServiceName)
+				.contains("gateway", "orders", "stock", "pricing");
+
+			SpanExpectations.expectSpans()
+				.exactly(1, named("create").and(ofKind(Span.Kind.CLIENT)).and(childOf(named("request"))))
+				.exactly(1,
+						named("create").and(ofKind(Span.Kind.SERVER))
+							.and(childOf(named("create").and(ofKind(Span.Kind.CLIENT))))
+							.and(durationAtLeast(Duration.ofMillis(10))))
+				.exactly(2, named("price").and(ofKind(Span.Kind.CLIENT)).and(childOf(named("create"))))
+				.exactly(2, named("price").and(ofKind(Span.Kind.SERVER)))
+				.exactly(1, named("reserve").and(ofKind(Span.Kind.SERVER)))
+				.verify(spans);
+		}
+
+	}
+
+	@ParameterizedTest
+	@EnumSource(TracingProvider.class)
+	void collectsTheSpansEndedConcurrently(final TracingProvider provider) {
+
+		final int calls = 200;
+		try (TraceSimulation simulation = TraceSimulation.create(provider)) {
+			simulation.service("pricing").endpoint("price", (request) -> "10");
+			final SimulatedService orders = simulation.service("orders");
+
+			final List<CompletableFuture<String>> responses = IntStream.range(0, calls)
+				.mapToObj((i) -> orders.callAsync("pricing", "price", null))
+				.toList();
+			responses.forEach(CompletableFuture::join);
+
+			SpanExpectations.expectSpans()
+				.exactly(calls, named("price").and(ofKind(Span.Kind.CLIENT)))
+				.exactly(calls, named("price").and(ofKind(Span.Kind.SERVER)))
+				.verify(simulation.getSpanCollector());
+		}
+
+	}
+
+	@ParameterizedTest
+	@EnumSource(TracingProvider.class)
+	void tracesRetries(final TracingProvider provider) {
+
+		try (TraceSimulation simulation = TraceSimulation.create(provider)) {
+			simulation.service("stock").endpoint("reserve", (request) -> {
+				if (request.getAttempt() < 3) {
+					throw new IllegalStateException("busy");
+				}
+				return "reserved";
+			});
+
+			final SimulatedService orders = simulation.service("orders");
+			assertThat(orders.call("stock", "reserve", null, 3)).isEqualTo("reserved");
+			assertThatExceptionOfType(SimulatedCallException.class)
+				.isThrownBy(() -> orders.call("stock", "reserve", null, 2))
+				.satisfies((ex) -> assertThat(ex.getAttempts()).isEqualTo(2));
+
+			SpanExpectations.expectSpans()
+				.exactly(5, named("reserve").and(ofKind(Span.Kind.CLIENT)))
+				.exactly(2, named("reserve").and(withTag(SimulatedService.ATTEMPT_TAG, "1")))
+				.exactly(1, named("reserve").and(withTag(SimulatedService.ATTEMPT_TAG, "3")))
+				.exactly(5, named("reserve").and(ofKind(Span.Kind.SERVER)))
+				.verify(simulation.getSpanCollector());
+		}
+
+	}
+
+	@ParameterizedTest
+	@EnumSource(TracingProvider.class)
+	void stopsRetryingWhenInterrupted(final TracingProvider provider) {
+
+		try (TraceSimulation simulation = TraceSimulation.create(provider)) {
+			simulation.networkLatency(Duration.ofMillis(5));
+			simulation.service("stock").endpoint("reserve", (request) -> "reserved");
+
+			Thread.currentThread().interrupt();
+			assertThatExceptionOfType(SimulatedCallException.class)
+				.isThrownBy(() -> simulation.service("orders").call("stock", "reserve", null, 3))
+				.withCauseInstanceOf(InterruptedException.class)
+				.satisfies((ex) -> assertThat(ex.getAttempts()).isEqualTo(1));
+			assertThat(Thread.interrupted()).isTrue();
+
+			SpanExpectations.expectSpans()
+				.exactly(1, named("reserve").and(ofKind(Span.Kind.CLIENT)))
+				.verify(simulation.getSpanCollector());
+		}
+		finally {
+			Thread.interrupted();
+		}
+
+	}
+
+}
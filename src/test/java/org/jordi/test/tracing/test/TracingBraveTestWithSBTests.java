@@ -16,13 +16,21 @@
 
 package org.jordi.test.tracing.test;
 
+import java.time.Duration;
+
+import brave.handler.MutableSpan;
+import brave.handler.SpanHandler;
+import brave.propagation.TraceContext;
+import io.micrometer.core.instrument.Timer;
 import io.micrometer.tracing.Span;
 import io.micrometer.tracing.Tracer;
 import io.micrometer.tracing.test.simple.TracingAssertions;
 import org.jordi.test.tracing.test.TracingBraveTestWithSBTests.TracingTestWithSBTestConfig;
 import org.jordi.tracing.test.TracingTest;
+import org.jordi.tracing.test.collector.ComponentTimings;
 import org.jordi.tracing.test.collector.SpanCollector;
 import org.jordi.tracing.test.extension.Spans;
+import org.jordi.tracing.test.metrics.SpanMetricsRecorder;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -32,6 +40,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @SpringBootTest(classes = TracingTestWithSBTestConfig.class, properties = "tracing.provider=brave")
 @TracingTest
 // Exlusion only neede because we have both providers. In a real project only should be
@@ -42,6 +52,9 @@ class TracingBraveTestWithSBTests {
 	@Autowired
 	private InstrumentedComponent instrumentedComponent;
 
+	@Autowired
+	private SpanMetricsRecorder spanMetricsRecorder;
+
 	@Spans
 	private SpanCollector spanCollector;
 
@@ -68,6 +81,38 @@ class TracingBraveTestWithSBTests {
 
 	}
 
+	@Test
+	void recordsSpanMetrics() {
+
+		this.instrumentedComponent.doSomethingWithTrace();
+
+		final Timer timer = this.spanMetricsRecorder.getMeterRegistry()
+			.find(SpanMetricsRecorder.SPAN_DURATION_METRIC)
+			.tag(SpanMetricsRecorder.SPAN_NAME_TAG, "instrumented-component-span")
+			.tag(SpanMetricsRecorder.ERROR_TAG, "false")
+			.timer();
+
+		assertThat(timer).isNotNull();
+		assertThat(timer.count()).isEqualTo(1);
+
+	}
+
+	@Test
+	void measuresSpanHandlers() {
+
+		this.instrumentedComponent.doSomethingWithTrace();
+
+		final ComponentTimings timings = this.spanCollector.getProcessingTimings()
+			.getComponent(TaggingSpanHandler.class);
+
+		assertThat(timings.getStartCount()).isEqualTo(1);
+		assertThat(timings.getEndCount()).isEqualTo(1);
+		this.spanCollector.getProcessingTimings()
+			.assertMeanOverheadUnder(TaggingSpanHandler.class, Duration.ofSeconds(1))
+			.assertNoErrors(TaggingSpanHandler.class);
+
+	}
+
 	static class InstrumentedComponent {
 
 		@Autowired
@@ -86,6 +131,16 @@ class TracingBraveTestWithSBTests {
 
 	}
 
+	static class TaggingSpanHandler extends SpanHandler {
+
+		@Override
+		public boolean begin(final TraceContext context, final MutableSpan span, final TraceContext parent) {
+			span.tag("processed", "true");
+			return true;
+		}
+
+	}
+
 	@Configuration(proxyBeanMethods = false)
 	static class TracingTestWithSBTestConfig {
 
@@ -94,6 +149,11 @@ class TracingBraveTestWithSBTests {
 			return new InstrumentedComponent();
 		}
 
+		@Bean
+		TaggingSpanHandler taggingSpanHandler() {
+			return new TaggingSpanHandler();
+		}
+
 	}
 
 }
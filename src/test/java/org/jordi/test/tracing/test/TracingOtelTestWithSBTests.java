@@ -16,13 +16,22 @@
 
 package org.jordi.test.tracing.test;
 
+import java.time.Duration;
+
+import io.micrometer.core.instrument.Timer;
 import io.micrometer.tracing.Span;
 import io.micrometer.tracing.Tracer;
 import io.micrometer.tracing.test.simple.TracingAssertions;
+import io.opentelemetry.context.Context;
+import io.opentelemetry.sdk.trace.ReadWriteSpan;
+import io.opentelemetry.sdk.trace.ReadableSpan;
+import io.opentelemetry.sdk.trace.SpanProcessor;
 import org.jordi.test.tracing.test.TracingOtelTestWithSBTests.TracingTestWithSBTestConfig;
 import org.jordi.tracing.test.TracingTest;
+import org.jordi.tracing.test.collector.ComponentTimings;
 import org.jordi.tracing.test.collector.SpanCollector;
 import org.jordi.tracing.test.extension.Spans;
+import org.jordi.tracing.test.metrics.SpanMetricsRecorder;
 import org.junit.jupiter.api.Test;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -32,6 +41,8 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @SpringBootTest(classes = TracingTestWithSBTestConfig.class, properties = "tracing.provider=otel")
 @TracingTest
 // Exlusion only neede because we have both providers. In a real project only should be
@@ -42,6 +53,9 @@ class TracingOtelTestWithSBTests {
 	@Autowired
 	private InstrumentedComponent instrumentedComponent;
 
+	@Autowired
+	private SpanMetricsRecorder spanMetricsRecorder;
+
 	@Spans
 	private SpanCollector spanCollector;
 
@@ -68,6 +82,38 @@ class TracingOtelTestWithSBTests {
 
 	}
 
+	@Test
+	void recordsSpanMetrics() {
+
+		this.instrumentedComponent.doSomethingWithTrace();
+
+		final Timer timer = this.spanMetricsRecorder.getMeterRegistry()
+			.find(SpanMetricsRecorder.SPAN_DURATION_METRIC)
+			.tag(SpanMetricsRecorder.SPAN_NAME_TAG, "instrumented-component-span")
+			.tag(SpanMetricsRecorder.ERROR_TAG, "false")
+			.timer();
+
+		assertThat(timer).isNotNull();
+		assertThat(timer.count()).isEqualTo(1);
+
+	}
+
+	@Test
+	void measuresSpanProcessors() {
+
+		this.instrumentedComponent.doSomethingWithTrace();
+
+		final ComponentTimings timings = this.spanCollector.getProcessingTimings()
+			.getComponent(TaggingSpanProcessor.class);
+
+		assertThat(timings.getStartCount()).isEqualTo(1);
+		assertThat(timings.getEndCount()).isEqualTo(1);
+		this.spanCollector.getProcessingTimings()
+			.assertMeanOverheadUnder(TaggingSpanProcessor.class, Duration.ofSeconds(1))
+			.assertNoErrors(TaggingSpanProcessor.class);
+
+	}
+
 	static class InstrumentedComponent {
 
 		@Autowired
@@ -86,6 +132,30 @@ class TracingOtelTestWithSBTests {
 
 	}
 
+	static class TaggingSpanProcessor implements SpanProcessor {
+
+		@Override
+		public void onStart(final Context parentContext, final ReadWriteSpan span) {
+			span.setAttribute("processed", true);
+		}
+
+		@Override
+		public boolean isStartRequired() {
+			return true;
+		}
+
+		@Override
+		public void onEnd(final ReadableSpan span) {
+			// Nothing to do
+		}
+
+		@Override
+		public boolean isEndRequired() {
+			return true;
+		}
+
+	}
+
 	@Configuration(proxyBeanMethods = false)
 	static class TracingTestWithSBTestConfig {
 
@@ -94,6 +164,11 @@ class TracingOtelTestWithSBTests {
 			return new InstrumentedComponent();
 		}
 
+		@Bean
+		TaggingSpanProcessor taggingSpanProcessor() {
+			return new TaggingSpanProcessor();
+		}
+
 	}
 
 }
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.test.tracing.test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.function.LongSupplier;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.jordi.tracing.test.TracingProvider;
+import org.jordi.tracing.test.autoconfigure.BraveTracingTestAutoConfiguration;
+import org.jordi.tracing.test.autoconfigure.OtelTracingTestAutoConfiguration;
+import org.jordi.tracing.test.collector.SpanCollector;
+import org.jordi.tracing.test.standalone.StandaloneTracing;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.actuate.autoconfigure.tracing.BraveAutoConfiguration;
+import org.springframework.boot.actuate.autoconfigure.tracing.OpenTelemetryAutoConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the time to first span of the standalone tracing against a Spring Boot
+ * context with the tracing test auto-configuration. The cold runs are measured each at
+ * a new JVM, as the classes loaded by any previous run would make them warm.
+ *
+ * <p>
+ * Only executed with the {@code benchmark} maven profile.
+ * </p>
+ */
+@Tag("benchmark")
+class TracingStartupBenchmarkTests {
+
+	private static final int COLD_ITERATIONS = 5;
+
+	private static final int WARM_ITERATIONS = 20;
+
+	private static final String SPRING_CONTEXT = "spring context";
+
+	private static final String STANDALONE = "standalone";
+
+	@ParameterizedTest
+	@EnumSource(TracingProvider.class)
+	void timeToFirstSpan(final TracingProvider provider) {
+
+		final long[] springContextCold = measure(COLD_ITERATIONS, () -> coldTimeToFirstSpan(provider, SPRING_CONTEXT));
+		final long[] standaloneCold = measure(COLD_ITERATIONS, () -> coldTimeToFirstSpan(provider, STANDALONE));
+		final long[] springContextWarm = measure(WARM_ITERATIONS, () -> springContextTimeToFirstSpan(provider));
+		final long[] standaloneWarm = measure(WARM_ITERATIONS, () -> standaloneTimeToFirstSpan(provider));
+
+		System.out.printf(Locale.ROOT, "%s time to first span (median of %d cold / %d warm runs):%n", provider,
+				COLD_ITERATIONS, WARM_ITERATIONS);
+		print(SPRING_CONTEXT, springContextCold, springContextWarm);
+		print(STANDALONE, standaloneCold, standaloneWarm);
+	}
+
+	/**
+	 * Entry point of the JVM started by each cold run, which prints the time to first
+	 * span of the given provider and mode.
+	 * @param args the provider and the mode
+	 */
+	public static void main(final String[] args) {
+		final TracingProvider provider = TracingProvider.valueOf(args[0]);
+		final long nanos = SPRING_CONTEXT.equals(args[1]) ? springContextTimeToFirstSpan(provider)
+				: standaloneTimeToFirstSpan(provider);
+
+		System.out.println(nanos);
+	}
+
+	private static long coldTimeToFirstSpan(final TracingProvider provider, final String mode) {
+		final Path java = Path.of(System.getProperty("java.home"), "bin", "java");
+		final ProcessBuilder processBuilder = new ProcessBuilder(java.toString(), "-cp",
+				System.getProperty("java.class.path"), TracingStartupBenchmarkTests.class.getName(), provider.name(),
+				mode)
+			.redirectError(ProcessBuilder.Redirect.DISCARD);
+
+		try {
+			final Process process = processBuilder.start();
+			final String[] lines = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8)
+				.split("\\R");
+
+			assertThat(process.waitFor()).as("exit code of the cold run").isZero();
+			// the logging of the context is also printed to the output, before the result
+			return Long.parseLong(lines[lines.length - 1].trim());
+		}
+		catch (final IOException ex) {
+			throw new IllegalStateException("Cannot start the JVM of the cold run", ex);
+		}
+		catch (final InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted waiting for the cold run", ex);
+		}
+	}
+
+	private static long springContextTimeToFirstSpan(final TracingProvider provider) {
+		final var excludedAutoConfiguration = (provider == TracingProvider.BRAVE)
+				? OpenTelemetryAutoConfiguration.class : BraveAutoConfiguration.class;
+
+		final long start = System.nanoTime();
+
+		try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TracingContextConfig.class)
+			.web(WebApplicationType.NONE)
+			.bannerMode(Banner.Mode.OFF)
+			.logStartupInfo(false)
+			.properties("tracing.provider=" + provider.name().toLowerCase(Locale.ROOT),
+					"spring.autoconfigure.exclude=" + excludedAutoConfiguration.getName())
+			.run()) {
+
+			createFirstSpan(context.getBean(Tracer.class), context.getBean(SpanCollector.class));
+			return System.nanoTime() - start;
+		}
+	}
+
+	private static long standaloneTimeToFirstSpan(final TracingProvider provider) {
+		final long start = System.nanoTime();
+
+		try (StandaloneTracing tracing = StandaloneTracing.create(provider)) {
+			createFirstSpan(tracing.getTracer(), tracing.getSpanCollector());
+			return System.nanoTime() - start;
+		}
+	}
+
+	private static void createFirstSpan(final Tracer tracer, final SpanCollector spanCollector) {
+		final Span span = tracer.nextSpan().name("first-span").start();
+		span.end();
+
+		assertThat(spanCollector.getFinishedSpans()).hasSize(1);
+	}
+
+	private static long[] measure(final int iterations, final LongSupplier timeToFirstSpan) {
+		final long[] durations = new long[iterations];
+		for (int i = 0; i < iterations; i++) {
+			durations[i] = timeToFirstSpan.getAsLong();
+		}
+		return durations;
+	}
+
+	private static void print(final String mode, final long[] cold, final long[] warm) {
+		System.out.printf(Locale.ROOT, "  %-15s %8.2f ms / %8.2f ms%n", mode, toMillis(median(cold)),
+				toMillis(median(warm)));
+	}
+
+	private static long median(final long[] durations) {
+		final long[] sorted = durations.clone();
+		Arrays.sort(sorted);
+		return sorted[sorted.length / 2];
+	}
+
+	private static double toMillis(final long nanos) {
+		return nanos / 1_000_000.0;
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	@EnableAutoConfiguration
+	@ImportAutoConfiguration({ BraveTracingTestAutoConfiguration.class, OtelTracingTestAutoConfiguration.class })
+	static class TracingContextConfig {
+
+	}
+
+}
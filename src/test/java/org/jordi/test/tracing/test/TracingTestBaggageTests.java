@@ -0,0 +1,52 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.test.tracing.test;
+
+import io.micrometer.tracing.BaggageInScope;
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import org.jordi.tracing.test.TracingTest;
+import org.jordi.tracing.test.extension.TestTracer;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Without Spring Boot auto-configuration there is no micrometer {@link Tracer} bean, so
+ * the one built by the extension over the OpenTelemetry tracer is injected.
+ */
+@TracingTest(baggage = "tenant")
+class TracingTestBaggageTests {
+
+	@TestTracer
+	private Tracer tracer;
+
+	@Test
+	void propagatesTheBaggageInScope() {
+		final Span span = this.tracer.nextSpan().name("rootSpan").start();
+
+		try (var spanInScope = this.tracer.withSpan(span);
+				BaggageInScope baggage = this.tracer.createBaggageInScope("tenant", "acme")) {
+			assertThat(this.tracer.getBaggage("tenant").get()).isEqualTo("acme");
+			assertThat(this.tracer.getAllBaggage()).containsEntry("tenant", "acme");
+		}
+		finally {
+			span.end();
+		}
+	}
+
+}
@@ -68,4 +68,20 @@ class TracingTestTests {
 			.hasTag("tag", "tag-value");
 	}
 
+	@Test
+	void injectsParameters(@TestTracer final Tracer tracer, @Spans final SpanCollector spanCollector) {
+		final Span rootSpan = tracer.nextSpan().name("rootSpan");
+
+		try (var spanInScope = tracer.withSpan(rootSpan.start())) {
+			// Do something in span
+		}
+		finally {
+			rootSpan.end();
+		}
+
+		TracingAssertions.assertThat(spanCollector.getFinishedSpans())
+			.hasNumberOfSpansEqualTo(1)
+			.hasASpanWithName("rootSpan");
+	}
+
 }
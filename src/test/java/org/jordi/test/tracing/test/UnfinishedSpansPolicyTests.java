@@ -0,0 +1,146 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.test.tracing.test;
+
+import io.micrometer.tracing.Tracer;
+import org.jordi.tracing.test.StandaloneTracingTest;
+import org.jordi.tracing.test.TracingProvider;
+import org.jordi.tracing.test.UnfinishedSpansPolicy;
+import org.jordi.tracing.test.collector.SpanCollector;
+import org.jordi.tracing.test.extension.Spans;
+import org.jordi.tracing.test.extension.TestTracer;
+import org.junit.jupiter.api.Test;
+import org.junit.platform.testkit.engine.EngineTestKit;
+import org.junit.platform.testkit.engine.Events;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.platform.engine.discovery.DiscoverySelectors.selectClass;
+import static org.junit.platform.testkit.engine.EventConditions.event;
+import static org.junit.platform.testkit.engine.EventConditions.finishedWithFailure;
+import static org.junit.platform.testkit.engine.EventConditions.test;
+import static org.junit.platform.testkit.engine.TestExecutionResultConditions.instanceOf;
+import static org.junit.platform.testkit.engine.TestExecutionResultConditions.message;
+
+/**
+ * Runs the nested test classes with the JUnit engine, as their failures are the expected
+ * outcome. The nested classes are disabled when they are not run by these tests.
+ */
+class UnfinishedSpansPolicyTests {
+
+	@Test
+	void failsTheTestsWhichLeaveSpansOpen() {
+
+		final Events events = execute(BraveFailingTests.class);
+
+		events.assertStatistics((stats) -> stats.started(2).succeeded(1).failed(1));
+		events.assertThatEvents()
+			.haveExactly(1, event(test("leavesASpanOpen"), finishedWithFailure(instanceOf(AssertionError.class),
+					message((text) -> text.contains("1 span(s) started but not finished")),
+					message((text) -> text.contains("'open'")))));
+
+	}
+
+	@Test
+	void failsTheTestsWhichLeaveSpansOpenWithOtel() {
+
+		final Events events = execute(OtelFailingTests.class);
+
+		events.assertStatistics((stats) -> stats.started(1).failed(1));
+
+	}
+
+	@Test
+	void doesNotTrackTheSpansWhenIgnored() {
+
+		final Events events = execute(IgnoringTests.class);
+
+		events.assertStatistics((stats) -> stats.started(1).succeeded(1));
+
+	}
+
+	@Test
+	void skipsTheFixturesWhenRunByThemselves() {
+
+		EngineTestKit.engine("junit-jupiter")
+			.selectors(selectClass(BraveFailingTests.class))
+			.execute()
+			.containerEvents()
+			.assertStatistics((stats) -> stats.skipped(1));
+
+	}
+
+	private static Events execute(final Class<?> testClass) {
+		return EngineTestKit.engine("junit-jupiter")
+			.configurationParameter(EngineTestKitFixture.ENABLED_PROPERTY, "true")
+			.selectors(selectClass(testClass))
+			.execute()
+			.testEvents();
+	}
+
+	@EngineTestKitFixture
+	@StandaloneTracingTest(provider = TracingProvider.BRAVE, unfinishedSpans = UnfinishedSpansPolicy.FAIL)
+	static class BraveFailingTests {
+
+		@TestTracer
+		private Tracer tracer;
+
+		@Test
+		void leavesASpanOpen() {
+			this.tracer.nextSpan().name("open").start();
+		}
+
+		@Test
+		void createsASpanWithoutStartingIt() {
+			this.tracer.nextSpan().name("never-started");
+		}
+
+	}
+
+	@EngineTestKitFixture
+	@StandaloneTracingTest(provider = TracingProvider.OTEL, unfinishedSpans = UnfinishedSpansPolicy.FAIL)
+	static class OtelFailingTests {
+
+		@TestTracer
+		private Tracer tracer;
+
+		@Test
+		void leavesASpanOpen() {
+			this.tracer.nextSpan().name("open").start();
+		}
+
+	}
+
+	@EngineTestKitFixture
+	@StandaloneTracingTest(unfinishedSpans = UnfinishedSpansPolicy.IGNORE)
+	static class IgnoringTests {
+
+		@Spans
+		private SpanCollector spanCollector;
+
+		@TestTracer
+		private Tracer tracer;
+
+		@Test
+		void leavesASpanOpen() {
+			this.tracer.nextSpan().name("open").start();
+
+			assertThat(this.spanCollector.getUnfinishedSpans()).isEmpty();
+		}
+
+	}
+
+}
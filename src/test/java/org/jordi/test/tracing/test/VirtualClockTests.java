@@ -0,0 +1,142 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.test.tracing.test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.exporter.FinishedSpan;
+import org.jordi.tracing.test.StandaloneTracingTest;
+import org.jordi.tracing.test.TracingProvider;
+import org.jordi.tracing.test.clock.VirtualClock;
+import org.jordi.tracing.test.collector.FinishedSpans;
+import org.jordi.tracing.test.collector.SpanCollector;
+import org.jordi.tracing.test.extension.Spans;
+import org.jordi.tracing.test.extension.TestClock;
+import org.jordi.tracing.test.extension.TestTracer;
+import org.jordi.tracing.test.standalone.StandaloneTracing;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@StandaloneTracingTest(virtualClock = true)
+class VirtualClockTests {
+
+	@Spans
+	private SpanCollector spanCollector;
+
+	@TestTracer
+	private Tracer tracer;
+
+	@TestClock
+	private VirtualClock clock;
+
+	@Test
+	void spansTakeTheTimeFromTheVirtualClock() {
+
+		final Instant start = this.clock.instant();
+		this.parentWithChild(this.tracer, this.clock);
+
+		assertDurations(this.spanCollector.getFinishedSpans(), start);
+
+	}
+
+	@Test
+	void braveSpansTakeTheTimeFromTheVirtualClock() {
+
+		final VirtualClock braveClock = new VirtualClock(Instant.parse("2023-01-01T00:00:00Z"));
+
+		try (StandaloneTracing tracing = StandaloneTracing.builder(TracingProvider.BRAVE)
+			.virtualClock(braveClock)
+			.build()) {
+			this.parentWithChild(tracing.getTracer(), braveClock);
+
+			assertDurations(tracing.getSpanCollector().getFinishedSpans(), Instant.parse("2023-01-01T00:00:00Z"));
+		}
+
+	}
+
+	@Test
+	void braveSpansKeepTheExplicitTimestamps() {
+
+		final Instant start = Instant.parse("2023-01-01T00:00:00Z");
+		final VirtualClock braveClock = new VirtualClock(start);
+
+		try (StandaloneTracing tracing = StandaloneTracing.builder(TracingProvider.BRAVE)
+			.virtualClock(braveClock)
+			.build()) {
+			final Span explicitStart = tracing.getTracer()
+				.spanBuilder()
+				.name("explicitStart")
+				.startTimestamp(epochMicros(start.minusSeconds(5)), TimeUnit.MICROSECONDS)
+				.start();
+			final Span explicitEnd = tracing.getTracer().nextSpan().name("explicitEnd").start();
+			braveClock.advance(Duration.ofMillis(150));
+			explicitStart.end();
+			explicitEnd.end(epochMicros(start.plusSeconds(3)), TimeUnit.MICROSECONDS);
+
+			assertThat(tracing.getSpanCollector().getFinishedSpans()).hasSize(2).allSatisfy((span) -> {
+				if (span.getName().equals("explicitStart")) {
+					assertThat(span.getStartTimestamp()).isEqualTo(start.minusSeconds(5));
+					assertThat(span.getEndTimestamp()).isEqualTo(start.plusMillis(150));
+				}
+				else {
+					assertThat(span.getStartTimestamp()).isEqualTo(start);
+					assertThat(span.getEndTimestamp()).isEqualTo(start.plusSeconds(3));
+				}
+			});
+		}
+
+	}
+
+	private void parentWithChild(final Tracer tracer, final VirtualClock clock) {
+		final Span parent = tracer.nextSpan().name("parent").start();
+
+		try (var spanInScope = tracer.withSpan(parent)) {
+			clock.advance(Duration.ofMillis(10));
+			final Span child = tracer.nextSpan().name("child").start();
+			clock.advance(Duration.ofMillis(150));
+			child.end();
+		}
+		finally {
+			clock.advance(Duration.ofMillis(1));
+			parent.end();
+		}
+	}
+
+	private static long epochMicros(final Instant instant) {
+		return TimeUnit.SECONDS.toMicros(instant.getEpochSecond()) + TimeUnit.NANOSECONDS.toMicros(instant.getNano());
+	}
+
+	private static void assertDurations(final List<FinishedSpan> spans, final Instant start) {
+		assertThat(spans).hasSize(2).allSatisfy((span) -> {
+			if (span.getName().equals("parent")) {
+				assertThat(span.getStartTimestamp()).isEqualTo(start);
+				assertThat(FinishedSpans.duration(span)).isEqualTo(Duration.ofMillis(161));
+			}
+			else {
+				assertThat(span.getStartTimestamp()).isEqualTo(start.plusMillis(10));
+				assertThat(FinishedSpans.duration(span)).isEqualTo(Duration.ofMillis(150));
+			}
+		});
+	}
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2012-2023 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      https://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jordi.test.tracing.test;
+
+import java.time.Duration;
+
+import io.micrometer.tracing.Span;
+import io.micrometer.tracing.Tracer;
+import io.micrometer.tracing.exporter.FinishedSpan;
+import org.jordi.tracing.test.TracingTest;
+import org.jordi.tracing.test.clock.VirtualClock;
+import org.jordi.tracing.test.collector.FinishedSpans;
+import org.jordi.tracing.test.collector.SpanCollector;
+import org.jordi.tracing.test.extension.Spans;
+import org.jordi.tracing.test.extension.TestClock;
+import org.jordi.tracing.test.extension.TestTracer;
+import org.jordi.tracing.test.metrics.SpanMetricsRecorder;
+import org.junit.jupiter.api.Test;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.autoconfigure.tracing.BraveAutoConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Configuration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(classes = VirtualClockWithSBTests.VirtualClockTestConfig.class, properties = "tracing.provider=otel")
+@TracingTest(virtualClock = true)
+// The project has both providers, so the one not under test is excluded
+@EnableAutoConfiguration(exclude = BraveAutoConfiguration.class)
+class VirtualClockWithSBTests {
+
+	@Spans
+	private SpanCollector spanCollector;
+
+	@TestTracer
+	private Tracer tracer;
+
+	@TestClock
+	private VirtualClock clock;
+
+	@Autowired
+	private VirtualClock virtualClockBean;
+
+	@Autowired
+	private SpanMetricsRecorder spanMetricsRecorder;
+
+	@Test
+	void spansTakeTheTimeFromTheVirtualClockBean() {
+
+		assertThat(this.clock).isSameAs(this.virtualClockBean);
+
+		final var start = this.clock.instant();
+		final Span span = this.tracer.nextSpan().name("virtual").start();
+		this.clock.advance(Duration.ofMillis(150));
+		span.end();
+
+		final FinishedSpan finishedSpan = this.spanCollector.getFinishedSpans().get(0);
+		assertThat(finishedSpan.getStartTimestamp()).isEqualTo(start);
+		assertThat(FinishedSpans.duration(finishedSpan)).isEqualTo(Duration.ofMillis(150));
+
+	}
+
+	@Test
+	void keepsTheRestOfTheTestAutoConfigurations() {
+
+		assertThat(this.spanMetricsRecorder).isNotNull();
+
+	}
+
+	@Configuration(proxyBeanMethods = false)
+	static class VirtualClockTestConfig {
+
+	}
+
+}